@@ -37,4 +37,13 @@ public class DreamScreenBindingConstants {
     public static final String CHANNEL_SCENE = "scene";
     public static final String CHANNEL_INPUT = "input";
     public static final String CHANNEL_COLOR = "color";
+    public static final String CHANNEL_COLOR_STREAM = "colorStream";
+    public static final String CHANNEL_GROUP_POWER = "groupPower";
+    public static final String CHANNEL_GROUP_MODE = "groupMode";
+    public static final String CHANNEL_GROUP_SCENE = "groupScene";
+    public static final String CHANNEL_GROUP_COLOR = "groupColor";
+    public static final String CHANNEL_PACKETS_RECEIVED = "packetsReceived";
+    public static final String CHANNEL_PACKETS_SENT = "packetsSent";
+    public static final String CHANNEL_RESPONSE_LATENCY_MEDIAN = "responseLatencyMedian";
+    public static final String CHANNEL_RESPONSE_LATENCY_99TH = "responseLatency99th";
 }
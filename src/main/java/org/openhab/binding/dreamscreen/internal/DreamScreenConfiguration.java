@@ -21,4 +21,6 @@ public class DreamScreenConfiguration {
     public static final String SERIAL_NUMBER = "serialNumber";
 
     public String serialNumber;
+    public int streamRate = 30;
+    public int offlineTimeout = 180;
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link DreamScreenDeviceCache} class remembers the last known address of each DreamScreen device across
+ * restarts so handlers can link to their device without waiting for a broadcast scan.
+ *
+ * The cache is stored as a small binary file of fixed size entries: serial number, IPv4 address, product id, group
+ * and the time the device was last seen. Entries not seen for {@link #TTL_MILLIS} are dropped.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenDeviceCache {
+    private static final int VERSION = 1;
+    private static final int MAX_ENTRIES = 1024;
+    private static final long TTL_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final long TOUCH_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Logger logger = LoggerFactory.getLogger(DreamScreenDeviceCache.class);
+    private final Map<Integer, Device> devices = new ConcurrentHashMap<>();
+    private final File file;
+    private volatile boolean dirty;
+
+    public DreamScreenDeviceCache(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the cached device with this serial number, or null if it is unknown or has expired.
+     */
+    public @Nullable Device get(final int serialNumber) {
+        final Device device = this.devices.get(serialNumber);
+        if (device != null && device.isExpired(System.currentTimeMillis())) {
+            this.devices.remove(serialNumber, device);
+            return null;
+        }
+        return device;
+    }
+
+    /**
+     * Records a device reply. Returns true when the cache changed enough that it should be saved: the address,
+     * product or group is different, or the entry has not been touched for a while.
+     */
+    public boolean update(final int serialNumber, final InetAddress address, final byte productId, final byte group) {
+        if (!(address instanceof Inet4Address)) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        final Device old = this.devices.get(serialNumber);
+        if (old != null && old.address.equals(address) && old.productId == productId && old.group == group
+                && now - old.lastSeen < TOUCH_MILLIS) {
+            return false;
+        }
+        this.devices.put(serialNumber, new Device(serialNumber, address, productId, group, now));
+        this.dirty = true;
+        return true;
+    }
+
+    public synchronized void load() {
+        this.devices.clear();
+        if (!this.file.isFile()) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if (in.readInt() != VERSION) {
+                logger.debug("Ignoring DreamScreen device cache {} with unknown version", this.file);
+                return;
+            }
+            final int count = Math.min(in.readInt(), MAX_ENTRIES);
+            final byte[] addr = new byte[4];
+            for (int i = 0; i < count; i++) {
+                final int serialNumber = in.readInt();
+                in.readFully(addr);
+                final byte productId = in.readByte();
+                final byte group = in.readByte();
+                final long lastSeen = in.readLong();
+                final Device device = new Device(serialNumber, InetAddress.getByAddress(addr), productId, group,
+                        lastSeen);
+                if (!device.isExpired(now)) {
+                    this.devices.put(serialNumber, device);
+                }
+            }
+            logger.debug("Loaded {} DreamScreen devices from {}", this.devices.size(), this.file);
+        } catch (IOException e) {
+            logger.warn("Unable to read DreamScreen device cache {}: {}", this.file, e.getMessage());
+            this.devices.clear();
+        }
+    }
+
+    public synchronized void save() {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        final long now = System.currentTimeMillis();
+        final File parent = this.file.getParentFile();
+        final File temp = new File(this.file.getPath() + ".tmp");
+        try {
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Unable to create " + parent);
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                final Device[] devices = this.devices.values().stream().filter(d -> !d.isExpired(now))
+                        .limit(MAX_ENTRIES).toArray(Device[]::new);
+                out.writeInt(VERSION);
+                out.writeInt(devices.length);
+                for (final Device device : devices) {
+                    out.writeInt(device.serialNumber);
+                    out.write(device.address.getAddress());
+                    out.writeByte(device.productId);
+                    out.writeByte(device.group);
+                    out.writeLong(device.lastSeen);
+                }
+            }
+            if (!temp.renameTo(this.file)) {
+                this.file.delete();
+                if (!temp.renameTo(this.file)) {
+                    throw new IOException("Unable to replace " + this.file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write DreamScreen device cache {}: {}", this.file, e.getMessage());
+            temp.delete();
+        }
+    }
+
+    /**
+     * A cached DreamScreen device.
+     */
+    public static final class Device {
+        public final int serialNumber;
+        public final InetAddress address;
+        public final byte productId;
+        public final byte group;
+        public final long lastSeen;
+
+        Device(final int serialNumber, final InetAddress address, final byte productId, final byte group,
+                final long lastSeen) {
+            this.serialNumber = serialNumber;
+            this.address = address;
+            this.productId = productId;
+            this.group = group;
+            this.lastSeen = lastSeen;
+        }
+
+        boolean isExpired(final long now) {
+            return now - this.lastSeen > TTL_MILLIS;
+        }
+    }
+}
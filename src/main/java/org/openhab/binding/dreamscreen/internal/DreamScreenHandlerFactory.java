@@ -15,9 +15,6 @@ package org.openhab.binding.dreamscreen.internal;
 import static java.util.stream.Collectors.toSet;
 import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.*;
 
-import java.util.HashMap;
-import java.util.Hashtable;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -25,17 +22,15 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
-import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
-import org.eclipse.smarthome.core.thing.type.DynamicStateDescriptionProvider;
 import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
 import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
 import org.openhab.binding.dreamscreen.internal.handler.DreamScreenInputDescriptionProvider;
 import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
-import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
 /**
  * The {@link DreamScreenHandlerFactory} is responsible for creating things and thing handlers.
@@ -48,7 +43,7 @@ public class DreamScreenHandlerFactory extends BaseThingHandlerFactory {
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES_UIDS = Stream
             .of(THING_TYPE_HD, THING_TYPE_4K, THING_TYPE_SIDEKICK).collect(toSet());
 
-    private Map<ThingUID, @Nullable ServiceRegistration<?>> services = new HashMap<>();
+    private @Nullable DreamScreenInputDescriptionProvider descriptionProvider;
 
     @Override
     public boolean supportsThingType(ThingTypeUID thingTypeUID) {
@@ -60,20 +55,22 @@ public class DreamScreenHandlerFactory extends BaseThingHandlerFactory {
         final ThingTypeUID thingTypeUID = thing.getThingTypeUID();
 
         if (THING_TYPE_HD.equals(thingTypeUID)) {
-            return new DreamScreenHdHandler(thing, registerDescriptionProvider(thing.getUID()));
+            return new DreamScreenHdHandler(thing, describeInputs(thing));
         } else if (THING_TYPE_4K.equals(thingTypeUID)) {
-            return new DreamScreen4kHandler(thing, registerDescriptionProvider(thing.getUID()));
+            return new DreamScreen4kHandler(thing, describeInputs(thing));
         } else if (THING_TYPE_SIDEKICK.equals(thingTypeUID)) {
             return new DreamScreenSidekickHandler(thing);
         }
         return null;
     }
 
-    private DreamScreenInputDescriptionProvider registerDescriptionProvider(ThingUID thingUID) {
-        final DreamScreenInputDescriptionProvider description = new DreamScreenInputDescriptionProvider(thingUID);
-        this.services.put(thingUID,
-                bundleContext.registerService(DynamicStateDescriptionProvider.class, description, new Hashtable<>()));
-        return description;
+    private DreamScreenInputDescriptionProvider describeInputs(Thing thing) {
+        final DreamScreenInputDescriptionProvider provider = this.descriptionProvider;
+        if (provider == null) {
+            throw new IllegalStateException("The input description provider is not available");
+        }
+        provider.addThing(thing.getUID());
+        return provider;
     }
 
     /**
@@ -82,10 +79,19 @@ public class DreamScreenHandlerFactory extends BaseThingHandlerFactory {
      */
     @Override
     protected void removeHandler(ThingHandler thingHandler) {
-        final @Nullable ServiceRegistration<?> reg = this.services.remove(thingHandler.getThing().getUID());
-        if (reg != null) {
-            reg.unregister();
+        final DreamScreenInputDescriptionProvider provider = this.descriptionProvider;
+        if (provider != null) {
+            provider.removeThing(thingHandler.getThing().getUID());
         }
         super.removeHandler(thingHandler);
     }
+
+    @Reference
+    public void setInputDescriptionProvider(final DreamScreenInputDescriptionProvider descriptionProvider) {
+        this.descriptionProvider = descriptionProvider;
+    }
+
+    public void unsetInputDescriptionProvider(final DreamScreenInputDescriptionProvider descriptionProvider) {
+        this.descriptionProvider = null;
+    }
 }
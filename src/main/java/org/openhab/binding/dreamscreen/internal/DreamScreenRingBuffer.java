@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link DreamScreenRingBuffer} class is a bounded, lock-free queue that hands received datagrams from the
+ * receive thread to the worker that applies them to handlers, and hands their slots back for reuse.
+ *
+ * Every slot carries a sequence number that tells producers and consumers whether it is free or filled for their
+ * current lap of the ring, so neither side ever blocks the other.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenRingBuffer<E> {
+    private final AtomicReferenceArray<@Nullable E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity the number of elements the buffer holds, rounded up to a power of two
+     */
+    public DreamScreenRingBuffer(final int capacity) {
+        final int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element, returning false if the buffer is full.
+     */
+    public boolean offer(final E element) {
+        long pos = this.tail.get();
+        while (true) {
+            final int index = (int) (pos & this.mask);
+            final long diff = this.sequences.get(index) - pos;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    this.elements.lazySet(index, element);
+                    this.sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element, or returns null if the buffer is empty.
+     */
+    public @Nullable E poll() {
+        long pos = this.head.get();
+        while (true) {
+            final int index = (int) (pos & this.mask);
+            final long diff = this.sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (this.head.compareAndSet(pos, pos + 1)) {
+                    final E element = this.elements.get(index);
+                    this.elements.lazySet(index, null);
+                    this.sequences.lazySet(index, pos + this.mask + 1);
+                    return element;
+                }
+                pos = this.head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = this.head.get();
+            }
+        }
+    }
+
+    public int size() {
+        final long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, this.mask + 1));
+    }
+}
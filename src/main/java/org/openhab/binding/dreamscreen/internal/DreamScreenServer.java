@@ -15,27 +15,45 @@ package org.openhab.binding.dreamscreen.internal;
 import static java.util.stream.Collectors.toSet;
 import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.*;
 
+import java.io.File;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.PrintWriter;
+import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
 import org.eclipse.smarthome.core.net.CidrAddress;
 import org.eclipse.smarthome.core.net.NetworkAddressChangeListener;
+import org.eclipse.smarthome.core.net.NetUtil;
 import org.eclipse.smarthome.core.net.NetworkAddressService;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
@@ -45,9 +63,12 @@ import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
 import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
 import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessage;
 import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageInvalid;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageReader;
 import org.openhab.binding.dreamscreen.internal.message.RefreshMessage;
 import org.openhab.binding.dreamscreen.internal.message.ScanMessage;
 import org.openhab.binding.dreamscreen.internal.message.SerialNumberMessage;
+import org.openhab.binding.dreamscreen.internal.metrics.DreamScreenDeviceMetrics;
+import org.openhab.binding.dreamscreen.internal.metrics.DreamScreenMetrics;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
@@ -64,82 +85,344 @@ import org.slf4j.LoggerFactory;
         DiscoveryService.class }, immediate = true, configurationPid = "discovery.dreamscreen")
 public class DreamScreenServer extends AbstractDiscoveryService implements NetworkAddressChangeListener {
     private final static int DREAMSCREEN_PORT = 8888;
+    private static final int MAX_PACKET_SIZE = 256;
+    private static final int RECEIVE_QUEUE_SIZE = 256;
     private static final int DISCOVER_TIMEOUT_SECONDS = 10;
+    private static final int VERIFY_CACHED_LINK_SECONDS = 5;
+    private static final int MAX_MISSED_SCANS = 3;
+    private static final long REDISCOVER_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int MIN_POLL_SECONDS = 15;
+    public static final int MAX_POLL_SECONDS = 60;
+    private static final int LIVENESS_TICK_SECONDS = 1;
+    private static final int LIVENESS_SLOTS = 64;
     private static final Set<ThingTypeUID> SUPPORTED_THING_TYPES = Stream
             .of(THING_TYPE_HD, THING_TYPE_4K, THING_TYPE_SIDEKICK).collect(toSet());
 
     private final Logger logger = LoggerFactory.getLogger(DreamScreenServer.class);
-    private final Set<DreamScreenBaseHandler> handlers = Collections.synchronizedSet(new HashSet<>());
-    private final Map<InetAddress, Integer> devices = new ConcurrentHashMap<>();
+    private final Map<Integer, DreamScreenBaseHandler> handlers = new ConcurrentHashMap<>();
+    private final Map<InetAddress, DreamScreenBaseHandler> linked = new ConcurrentHashMap<>();
+    private final Map<InetAddress, KnownDevice> devices = new ConcurrentHashMap<>();
+    private final Map<InetAddress, InetSocketAddress> targets = new ConcurrentHashMap<>();
+    private final Map<InetAddress, Endpoint> routes = new ConcurrentHashMap<>();
+    private final ThreadLocal<ByteBuffer> sendBuffers = ThreadLocal
+            .withInitial(() -> ByteBuffer.allocateDirect(MAX_PACKET_SIZE));
     private @Nullable NetworkAddressService network;
-    private @Nullable InetAddress hostAddress;
-    private @Nullable InetAddress broadcastAddress;
+    private Map<InetAddress, Interface> interfaces = Collections.emptyMap();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+    private final DreamScreenRingBuffer<Received> received = new DreamScreenRingBuffer<>(RECEIVE_QUEUE_SIZE);
+    private final DreamScreenRingBuffer<Received> freeSlots = new DreamScreenRingBuffer<>(RECEIVE_QUEUE_SIZE);
     private @Nullable Thread server;
-    private @Nullable DatagramSocket socket;
-    private long scanning = 0;
+    private volatile @Nullable Thread worker;
+    private @Nullable Selector selector;
+    private volatile List<Endpoint> endpoints = Collections.emptyList();
+    private final DreamScreenMetrics metrics = new DreamScreenMetrics(this.received::size);
+    private final DreamScreenDeviceCache cache = new DreamScreenDeviceCache(
+            new File(ConfigConstants.getUserDataFolder(), "dreamscreen" + File.separator + "devices.cache"));
+    private volatile long scanning = 0;
+    private long scanStarted = 0;
+    private volatile long scanLastReply = 0;
+    private @Nullable ScheduledFuture<?> poller;
+    private int pollSeconds = MIN_POLL_SECONDS;
+    private volatile boolean stateChanged = false;
+    private final DreamScreenTimerWheel<DreamScreenBaseHandler> liveness = new DreamScreenTimerWheel<>(
+            TimeUnit.SECONDS.toNanos(LIVENESS_TICK_SECONDS), LIVENESS_SLOTS,
+            DreamScreenBaseHandler::getOfflineDeadline, DreamScreenBaseHandler::offlineTimedOut);
+    private @Nullable ScheduledFuture<?> livenessTicker;
 
     public DreamScreenServer() {
         super(SUPPORTED_THING_TYPES, DISCOVER_TIMEOUT_SECONDS, true);
+        this.cache.load();
+        for (int i = 0; i < RECEIVE_QUEUE_SIZE; i++) {
+            this.freeSlots.offer(new Received());
+        }
     }
 
     private void runServer() {
-        final byte[] data = new byte[256];
-        final DatagramSocket socket = this.socket;
+        final Selector selector = this.selector;
 
-        while (socket != null && !socket.isClosed()) {
+        while (selector != null && selector.isOpen()) {
             try {
-                final DatagramPacket packet = new DatagramPacket(data, data.length);
-                socket.receive(packet);
+                selector.select();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        receive((Endpoint) key.attachment());
+                    }
+                }
+            } catch (ClosedSelectorException cse) {
+                break;
+            } catch (IOException ioe) {
+                logger.error("Error communicating with DreamScreen devices", ioe);
+            }
+        }
+    }
 
-                final InetAddress address = packet.getAddress();
+    /**
+     * Drains every datagram currently pending on the endpoint's channel into the shared receive buffer, and copies each
+     * one into a preallocated slot queued for the worker, so a slow handler never keeps the socket from being read and
+     * receiving does not allocate. The endpoint each device answers on is remembered, so messages to the device leave
+     * through the same interface.
+     */
+    private void receive(final Endpoint endpoint) throws IOException {
+        final DatagramChannel channel = endpoint.channel;
+        final ByteBuffer buffer = this.buffer;
+
+        while (true) {
+            buffer.clear();
+            final SocketAddress source = channel.receive(buffer);
+            if (source == null) {
+                return;
+            }
+            buffer.flip();
 
-                if (!address.equals(this.hostAddress)) {
-                    final DreamScreenMessage msg = DreamScreenMessage.fromPacket(packet);
-                    logger.debug("Received {} from {}", msg, address);
+            final InetAddress address = ((InetSocketAddress) source).getAddress();
+            if (!this.interfaces.containsKey(address)) {
+                this.metrics.packetsReceived.increment();
+                if (this.routes.get(address) != endpoint) {
+                    this.routes.put(address, endpoint);
+                }
+                enqueue(buffer, address);
+            }
+        }
+    }
 
-                    if (!message(msg, address)) {
-                        unlinkedMsg(msg, address);
-                    }
+    /**
+     * Copies a received datagram into a free slot and hands it to the worker. When the worker has fallen behind by a
+     * whole queue, the slot of the oldest datagram is taken instead, since newer refreshes carry newer state anyway.
+     */
+    private void enqueue(final ByteBuffer data, final InetAddress address) {
+        Received slot = this.freeSlots.poll();
+        if (slot == null) {
+            slot = this.received.poll();
+            this.metrics.packetsDropped.increment();
+            if (slot == null) {
+                logger.debug("No receive slot free, dropped message from {}", address);
+                return;
+            }
+            logger.debug("Receive queue full, dropped oldest message");
+        }
+        slot.length = data.remaining();
+        data.get(slot.data, 0, slot.length);
+        slot.address = address;
+        // there are only as many slots as the queue holds, so this always succeeds
+        this.received.offer(slot);
+        final Thread worker = this.worker;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Decodes queued datagrams and applies them to the handlers until the worker is interrupted. Messages are
+     * flyweight views over their slot, which is only freed once the message has been processed.
+     */
+    private void runWorker() {
+        final Thread current = Thread.currentThread();
+        final DreamScreenMessageReader reader = new DreamScreenMessageReader();
+        while (!current.isInterrupted()) {
+            final Received received = this.received.poll();
+            if (received == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            final InetAddress address = received.address;
+            try {
+                if (address == null) {
+                    continue;
+                }
+                received.view.limit(received.length).position(0);
+                final DreamScreenMessage msg = reader.read(received.view);
+                logger.debug("Received {} from {}", msg, address);
+                if (!message(msg, address)) {
+                    unlinkedMsg(msg, address);
                 }
             } catch (DreamScreenMessageInvalid dsmi) {
+                this.metrics.decodeFailed(String.valueOf(dsmi.getMessage()));
                 logger.trace("Message received is not a DreamScreen message", dsmi);
-            } catch (IOException ioe) {
-                logger.error("Error communicating with DreamScreen devices", ioe);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error processing message from {}", address, e);
+            } finally {
+                this.freeSlots.offer(received);
             }
         }
     }
 
-    private DatagramSocket startServer() throws IOException {
-        DatagramSocket socket = this.socket;
-        Thread server = this.server;
-        if (socket == null || socket.isClosed() || server == null) {
-            socket = new DatagramSocket(DREAMSCREEN_PORT, hostAddress);
-            socket.setBroadcast(true);
-            socket.setReuseAddress(true);
-            this.socket = socket;
+    private List<Endpoint> startServer() throws IOException {
+        final List<Endpoint> endpoints = this.endpoints;
+        if (!endpoints.isEmpty() && this.server != null) {
+            return endpoints;
+        }
+        synchronized (this) {
+            if (this.endpoints.isEmpty() || this.server == null) {
+                openEndpoints();
+                doScan();
+                startTimers();
+            }
+            return this.endpoints;
+        }
+    }
 
-            server = new Thread(this::runServer, "dreamscreen-tv");
-            server.setDaemon(true);
-            server.start();
-            this.server = server;
+    /**
+     * Binds a channel to every configured IPv4 interface and registers them all with one selector, serviced by a
+     * single server thread.
+     */
+    private void openEndpoints() throws IOException {
+        final Selector selector = Selector.open();
+        final List<Endpoint> endpoints = new ArrayList<>();
+        for (final Interface iface : this.interfaces.values()) {
+            DatagramChannel channel = null;
+            try {
+                channel = DatagramChannel.open(StandardProtocolFamily.INET);
+                channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                channel.setOption(StandardSocketOptions.SO_BROADCAST, true);
+                channel.bind(new InetSocketAddress(iface.address, DREAMSCREEN_PORT));
+                channel.configureBlocking(false);
+                final Endpoint endpoint = new Endpoint(iface, channel);
+                channel.register(selector, SelectionKey.OP_READ, endpoint);
+                endpoints.add(endpoint);
+                logger.debug("Listening for DreamScreen devices on {}", iface.address);
+            } catch (IOException e) {
+                logger.warn("Unable to listen for DreamScreen devices on {}: {}", iface.address, e.getMessage());
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+        if (endpoints.isEmpty()) {
+            selector.close();
+            throw new IOException("No network interface available for DreamScreen devices");
+        }
+        this.selector = selector;
+        this.endpoints = Collections.unmodifiableList(endpoints);
+
+        final Thread worker = new Thread(this::runWorker, "dreamscreen-worker");
+        worker.setDaemon(true);
+        worker.start();
+        this.worker = worker;
+
+        final Thread server = new Thread(this::runServer, "dreamscreen-tv");
+        server.setDaemon(true);
+        server.start();
+        this.server = server;
+    }
 
-            doScan();
+    private synchronized void startTimers() {
+        final ScheduledFuture<?> poller = this.poller;
+        if (poller == null || poller.isDone()) {
+            this.pollSeconds = MIN_POLL_SECONDS;
+            this.poller = this.scheduler.schedule(this::poll, MIN_POLL_SECONDS, TimeUnit.SECONDS);
+        }
+        final ScheduledFuture<?> livenessTicker = this.livenessTicker;
+        if (livenessTicker == null || livenessTicker.isDone()) {
+            this.livenessTicker = this.scheduler.scheduleWithFixedDelay(this.liveness::tick, LIVENESS_TICK_SECONDS,
+                    LIVENESS_TICK_SECONDS, TimeUnit.SECONDS);
+        }
+        for (final DreamScreenBaseHandler handler : this.handlers.values()) {
+            if (handler.isOnline()) {
+                this.liveness.schedule(handler);
+            }
         }
-        return socket;
     }
 
-    private void stopServer() {
-        final DatagramSocket socket = this.socket;
-        final Thread server = this.server;
-        if (socket != null && !socket.isClosed()) {
-            socket.close();
+    private synchronized void stopTimers() {
+        final ScheduledFuture<?> poller = this.poller;
+        if (poller != null) {
+            poller.cancel(false);
+            this.poller = null;
+        }
+        final ScheduledFuture<?> livenessTicker = this.livenessTicker;
+        if (livenessTicker != null) {
+            livenessTicker.cancel(false);
+            this.livenessTicker = null;
+        }
+        this.liveness.clear();
+    }
+
+    /**
+     * Starts watching an online handler, which is taken offline once its device has been silent for longer than its
+     * offline timeout. Every packet from the device pushes that deadline back.
+     */
+    public void watch(final DreamScreenBaseHandler handler) {
+        if (this.handlers.get(handler.getSerialNumber()) == handler) {
+            this.liveness.schedule(handler);
+        }
+    }
+
+    /**
+     * Asks every device for its state with a single broadcast refresh, whose replies are routed to the linked
+     * handlers like any other message. The interval doubles up to {@link #MAX_POLL_SECONDS} while polls find nothing
+     * new, and drops back to {@link #MIN_POLL_SECONDS} as soon as any device reports a change.
+     */
+    private synchronized void poll() {
+        if (this.poller == null) {
+            return;
+        }
+        if (this.stateChanged) {
+            this.stateChanged = false;
+            this.pollSeconds = MIN_POLL_SECONDS;
+        } else {
+            this.pollSeconds = Math.min(this.pollSeconds * 2, MAX_POLL_SECONDS);
         }
-        if (server != null) {
+        if (!this.linked.isEmpty()) {
             try {
+                read(new RefreshMessage());
+            } catch (IOException e) {
+                logger.debug("Unable to poll DreamScreen devices", e);
+            }
+        }
+        this.poller = this.scheduler.schedule(this::poll, this.pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Called by handlers when a refresh changed their state.
+     */
+    public void stateChanged() {
+        this.stateChanged = true;
+    }
+
+    private void stopServer() {
+        final Thread server;
+        final Thread worker;
+        synchronized (this) {
+            stopTimers();
+            final Selector selector = this.selector;
+            final List<Endpoint> endpoints = this.endpoints;
+            server = this.server;
+            worker = this.worker;
+            this.endpoints = Collections.emptyList();
+            this.routes.clear();
+            this.server = null;
+            this.worker = null;
+            if (worker != null) {
+                worker.interrupt();
+            }
+            try {
+                if (selector != null && selector.isOpen()) {
+                    selector.close();
+                }
+                for (final Endpoint endpoint : endpoints) {
+                    endpoint.channel.close();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to close DreamScreen server", e);
+            }
+        }
+        try {
+            if (server != null && server != Thread.currentThread()) {
                 server.join(5000);
-            } catch (InterruptedException e) {
-                logger.error("Failed to wait for server to stop", e);
             }
+            if (worker != null && worker != Thread.currentThread()) {
+                worker.join(5000);
+            }
+        } catch (InterruptedException e) {
+            logger.error("Failed to wait for server to stop", e);
+        }
+        Received slot;
+        while ((slot = this.received.poll()) != null) {
+            this.freeSlots.offer(slot);
         }
     }
 
@@ -148,49 +431,215 @@ public class DreamScreenServer extends AbstractDiscoveryService implements Netwo
         logger.debug("Starting DreamScreen discovery scan");
         try {
             this.scanning = System.currentTimeMillis();
+            this.scanStarted = System.nanoTime();
+            this.scanLastReply = 0;
+            this.scheduler.schedule(this::scanFinished, DISCOVER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             doScan();
         } catch (IOException e) {
             logger.error("Error scanning for DreamScreen devices", e);
         }
     }
 
+    /**
+     * Records how long the devices took to answer the scan once its discovery window has closed.
+     */
+    private void scanFinished() {
+        final long lastReply = this.scanLastReply;
+        if (lastReply != 0) {
+            this.metrics.scanDuration.record(lastReply - this.scanStarted);
+        }
+        ageDevices(this.scanning);
+    }
+
+    /**
+     * Forgets devices that have not answered the last few scans. A single missed reply is not enough, since UDP
+     * broadcasts are easily lost.
+     */
+    private void ageDevices(final long scanStarted) {
+        final Iterator<Entry<InetAddress, KnownDevice>> entries = this.devices.entrySet().iterator();
+        while (entries.hasNext()) {
+            final KnownDevice device = entries.next().getValue();
+            if (device.lastSeen >= scanStarted) {
+                device.missedScans = 0;
+            } else if (++device.missedScans >= MAX_MISSED_SCANS) {
+                logger.debug("DreamScreen {} has not answered the last {} scans", device.serialNumber,
+                        MAX_MISSED_SCANS);
+                entries.remove();
+                final ThingTypeUID uid = thingTypeUID(device.productId);
+                if (uid != null) {
+                    thingRemoved(new ThingUID(uid, Integer.toString(device.serialNumber)));
+                }
+            }
+        }
+    }
+
     private void doScan() throws IOException {
-        this.devices.clear();
         read(new ScanMessage());
     }
 
     void read(final DreamScreenMessage msg) throws IOException {
-        final InetAddress address = this.broadcastAddress;
-        if (address != null) {
-            send(msg.broadcastReadPacket(address, DREAMSCREEN_PORT));
-        } else {
+        final ByteBuffer buffer = sendBuffer();
+        msg.putBroadcastRead(buffer);
+        buffer.flip();
+        if (!broadcast(buffer)) {
             logger.error("No broadcast address configured");
         }
     }
 
     public void read(final DreamScreenMessage msg, final InetAddress address) throws IOException {
         logger.debug("Sending {} to {}", msg, address);
-        send(msg.readPacket(address, DREAMSCREEN_PORT));
+        final ByteBuffer buffer = sendBuffer();
+        msg.putRead(buffer);
+        buffer.flip();
+        send(buffer, address);
     }
 
     public void write(final DreamScreenMessage msg, final InetAddress address) throws IOException {
         logger.debug("Sending {} to {}", msg, address);
-        send(msg.writePacket(address, DREAMSCREEN_PORT));
+        final ByteBuffer buffer = sendBuffer();
+        msg.putWrite(buffer);
+        buffer.flip();
+        send(buffer, address);
+    }
+
+    /**
+     * Sends a write to every device in a group with a single broadcast on each interface. Devices that are not in a
+     * group are written to directly.
+     */
+    public void writeGroup(final DreamScreenMessage msg, final byte group, final InetAddress address)
+            throws IOException {
+        if (group == 0 || !hasBroadcast()) {
+            write(msg, address);
+        } else {
+            logger.debug("Sending {} to group {}", msg, group);
+            final ByteBuffer buffer = sendBuffer();
+            msg.putGroupWrite(buffer);
+            buffer.flip();
+            broadcast(buffer);
+        }
+    }
+
+    private boolean hasBroadcast() {
+        for (final Interface iface : this.interfaces.values()) {
+            if (iface.broadcast != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends the data to the broadcast address of every interface. Returns false if no interface has one.
+     */
+    private boolean broadcast(final ByteBuffer data) throws IOException {
+        boolean sent = false;
+        final int start = data.position();
+        for (final Endpoint endpoint : startServer()) {
+            final InetAddress broadcast = endpoint.iface.broadcast;
+            if (broadcast != null) {
+                data.position(start);
+                send(endpoint, data, broadcast);
+                sent = true;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Returns the calling thread's send buffer, cleared and ready for a message to be encoded into it.
+     */
+    private ByteBuffer sendBuffer() {
+        final ByteBuffer buffer = this.sendBuffers.get();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Sends the data between the buffer's position and limit, through the interface the device last answered on.
+     * Destinations are cached so sending does not allocate.
+     */
+    public void send(final ByteBuffer data, final InetAddress address) throws IOException {
+        final List<Endpoint> endpoints = this.endpoints;
+        if (endpoints.isEmpty()) {
+            throw new IOException("DreamScreen server is not running");
+        }
+        Endpoint endpoint = this.routes.get(address);
+        if (endpoint == null || !endpoint.channel.isOpen()) {
+            endpoint = endpoints.get(0);
+            for (final Endpoint candidate : endpoints) {
+                if (candidate.iface.contains(address)) {
+                    endpoint = candidate;
+                    break;
+                }
+            }
+        }
+        send(endpoint, data, address);
     }
 
-    private void send(final DatagramPacket packet) throws IOException {
-        startServer().send(packet);
+    private void send(final Endpoint endpoint, final ByteBuffer data, final InetAddress address) throws IOException {
+        InetSocketAddress target = this.targets.get(address);
+        if (target == null) {
+            target = this.targets.computeIfAbsent(address, a -> new InetSocketAddress(a, DREAMSCREEN_PORT));
+        }
+        if (endpoint.channel.send(data, target) == 0) {
+            logger.warn("Send buffer full, dropped message to {}", address);
+        } else {
+            this.metrics.packetsSent.increment();
+        }
     }
 
     private boolean message(final DreamScreenMessage msg, final InetAddress address) {
-        for (final DreamScreenBaseHandler handler : this.handlers) {
-            if (handler.message(msg, address)) {
+        if (msg instanceof SerialNumberMessage) {
+            scanReplied();
+            final DreamScreenBaseHandler handler = this.handlers.get(((SerialNumberMessage) msg).getSerialNumber());
+            if (handler != null) {
+                if (!address.equals(handler.getAddress()) || !handler.isOnline()) {
+                    link(handler, address);
+                }
                 return true;
             }
+            return false;
+        }
+        final DreamScreenBaseHandler handler = this.linked.get(address);
+        if (handler != null && handler.message(msg, address)) {
+            if (msg instanceof RefreshMessage) {
+                final RefreshMessage refresh = (RefreshMessage) msg;
+                remember(handler.getSerialNumber(), address, refresh.getProductId(), refresh.getGroup());
+            }
+            return true;
         }
         return false;
     }
 
+    /**
+     * Notes the time of a serial number reply that arrives during a scan, whether or not the device has a handler.
+     */
+    private void scanReplied() {
+        if (this.scanning > System.currentTimeMillis() - DISCOVER_TIMEOUT_SECONDS * 1000) {
+            this.scanLastReply = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records where a device answered from so it can be linked straight away the next time its handler starts.
+     */
+    private void remember(final int serialNumber, final InetAddress address, final byte productId,
+            final byte group) {
+        if (this.cache.update(serialNumber, address, productId, group)) {
+            this.scheduler.execute(this.cache::save);
+        }
+    }
+
+    private void link(final DreamScreenBaseHandler handler, final InetAddress address) {
+        final InetAddress oldAddress = handler.getAddress();
+        if (oldAddress != null && !oldAddress.equals(address)) {
+            this.linked.remove(oldAddress, handler);
+        }
+        this.linked.put(address, handler);
+        handler.link(address);
+        watch(handler);
+    }
+
     public boolean unlinkedMsg(final DreamScreenMessage msg, final InetAddress address) throws IOException {
         if (msg instanceof SerialNumberMessage) {
             processSerialNumber((SerialNumberMessage) msg, address);
@@ -200,67 +649,133 @@ public class DreamScreenServer extends AbstractDiscoveryService implements Netwo
         return false;
     }
 
+    /**
+     * Updates the live device table from a scan reply. Devices already known at this address are only asked for
+     * their details again when it is time to republish them to the inbox.
+     */
     private void processSerialNumber(final SerialNumberMessage msg, final InetAddress address) throws IOException {
-        this.devices.put(address, msg.getSerialNumber());
-        if (this.scanning > System.currentTimeMillis() - DISCOVER_TIMEOUT_SECONDS * 1000) {
+        final int serialNumber = msg.getSerialNumber();
+        final long now = System.currentTimeMillis();
+        KnownDevice device = this.devices.get(address);
+        if (device == null || device.serialNumber != serialNumber) {
+            device = new KnownDevice(serialNumber);
+            this.devices.put(address, device);
+        }
+        device.lastSeen = now;
+        if (this.scanning > now - DISCOVER_TIMEOUT_SECONDS * 1000
+                && now - device.lastDiscovered >= REDISCOVER_INTERVAL_MILLIS) {
             write(new RefreshMessage(), address);
         }
     }
 
     private void processRefresh(final RefreshMessage msg, final InetAddress address) {
-        if (this.devices.containsKey(address)) {
-            final int serialNumber = this.devices.get(address);
-            discovered(msg, serialNumber);
+        final KnownDevice device = this.devices.get(address);
+        if (device != null) {
+            final long now = System.currentTimeMillis();
+            device.lastSeen = now;
+            remember(device.serialNumber, address, msg.getProductId(), msg.getGroup());
+            discovered(msg, device, now);
         }
     }
 
-    private void discovered(final RefreshMessage msg, final int serialNumber) {
-        final ThingTypeUID uid;
-        logger.debug("Found DreamScreen {} named {}", serialNumber, msg.getName());
-        switch (msg.getProductId()) {
-            case DreamScreenHdHandler.PRODUCT_ID:
-                uid = THING_TYPE_HD;
-                break;
-            case DreamScreen4kHandler.PRODUCT_ID:
-                uid = THING_TYPE_4K;
-                break;
-            case DreamScreenSidekickHandler.PRODUCT_ID:
-                uid = THING_TYPE_SIDEKICK;
-                break;
-            default:
-                uid = null;
-                break;
+    /**
+     * Publishes a discovery result, unless the same name and product were already published recently.
+     */
+    private void discovered(final RefreshMessage msg, final KnownDevice device, final long now) {
+        final String name = msg.getName();
+        final byte productId = msg.getProductId();
+        if (name.equals(device.name) && productId == device.productId
+                && now - device.lastDiscovered < REDISCOVER_INTERVAL_MILLIS) {
+            return;
         }
+        device.name = name;
+        device.productId = productId;
+        device.lastDiscovered = now;
+
+        logger.debug("Found DreamScreen {} named {}", device.serialNumber, name);
+        final ThingTypeUID uid = thingTypeUID(productId);
         if (uid != null) {
-            final String serialNumStr = Integer.toString(serialNumber);
+            final String serialNumStr = Integer.toString(device.serialNumber);
             final ThingUID thingUID = new ThingUID(uid, serialNumStr);
-            thingDiscovered(DiscoveryResultBuilder.create(thingUID).withLabel(msg.getName())
+            thingDiscovered(DiscoveryResultBuilder.create(thingUID).withLabel(name)
                     .withProperty(DreamScreenConfiguration.SERIAL_NUMBER, serialNumStr)
                     .withRepresentationProperty(DreamScreenConfiguration.SERIAL_NUMBER).build());
         }
     }
 
+    private static @Nullable ThingTypeUID thingTypeUID(final byte productId) {
+        switch (productId) {
+            case DreamScreenHdHandler.PRODUCT_ID:
+                return THING_TYPE_HD;
+            case DreamScreen4kHandler.PRODUCT_ID:
+                return THING_TYPE_4K;
+            case DreamScreenSidekickHandler.PRODUCT_ID:
+                return THING_TYPE_SIDEKICK;
+            default:
+                return null;
+        }
+    }
+
     public void addHandler(final DreamScreenBaseHandler handler) {
-        this.handlers.add(handler);
+        this.handlers.put(handler.getSerialNumber(), handler);
         try {
             startServer();
         } catch (IOException e) {
             logger.error("Error starting DreamScreen server", e);
         }
-        for (final Entry<InetAddress, Integer> entry : this.devices.entrySet()) {
-            if (handler.link(entry.getValue(), entry.getKey())) {
-                break;
+        for (final Entry<InetAddress, KnownDevice> entry : this.devices.entrySet()) {
+            if (entry.getValue().serialNumber == handler.getSerialNumber()) {
+                link(handler, entry.getKey());
+                return;
+            }
+        }
+        final DreamScreenDeviceCache.Device cached = this.cache.get(handler.getSerialNumber());
+        if (cached != null && !this.linked.containsKey(cached.address)) {
+            logger.debug("Linking DreamScreen {} to cached address {}", cached.serialNumber, cached.address);
+            link(handler, cached.address);
+            this.scheduler.schedule(() -> verifyLink(handler), VERIFY_CACHED_LINK_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * A device may have moved since its address was cached. If it has not answered at the cached address, scan for
+     * it so its serial number reply links it to where it is now.
+     */
+    private void verifyLink(final DreamScreenBaseHandler handler) {
+        if (this.handlers.get(handler.getSerialNumber()) == handler && !handler.isOnline()) {
+            logger.debug("DreamScreen {} did not answer at its cached address, scanning", handler.getSerialNumber());
+            try {
+                read(new ScanMessage());
+            } catch (IOException e) {
+                logger.error("Error scanning for DreamScreen devices", e);
             }
         }
     }
 
     public void removeHandler(final DreamScreenBaseHandler handler) {
-        this.handlers.remove(handler);
+        this.handlers.remove(handler.getSerialNumber(), handler);
+        this.liveness.cancel(handler);
+        final InetAddress address = handler.getAddress();
+        if (address != null) {
+            this.linked.remove(address, handler);
+        }
         if (this.handlers.isEmpty()) {
             stopServer();
         }
     }
 
+    public DreamScreenMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public void writeMetrics(final PrintWriter out) {
+        final Map<Integer, DreamScreenDeviceMetrics> devices = new TreeMap<>();
+        for (final DreamScreenBaseHandler handler : this.handlers.values()) {
+            devices.put(handler.getSerialNumber(), handler.getMetrics());
+        }
+        this.metrics.write(out, devices);
+    }
+
     @Reference
     public void bindNetworkAddressService(final NetworkAddressService network) {
         this.network = network;
@@ -283,40 +798,147 @@ public class DreamScreenServer extends AbstractDiscoveryService implements Netwo
         configureNetwork();
     }
 
+    /**
+     * Listens on every non-loopback IPv4 interface, so devices on other subnets or VLANs are found too. When no
+     * interface can be listed, the configured primary and broadcast addresses are used instead.
+     */
     private void configureNetwork() {
         final NetworkAddressService networkAddressService = this.network;
-        final InetAddress oldHostAddress = this.hostAddress;
-
-        if (networkAddressService != null) {
-            try {
-                final String host = networkAddressService.getPrimaryIpv4HostAddress();
-                final InetAddress newHostAddress = host == null ? null : InetAddress.getByName(host);
-                this.hostAddress = newHostAddress;
-
+        if (networkAddressService == null) {
+            return;
+        }
+        try {
+            final Map<InetAddress, Interface> interfaces = new LinkedHashMap<>();
+            final String host = networkAddressService.getPrimaryIpv4HostAddress();
+            if (host != null) {
                 final String broadcast = networkAddressService.getConfiguredBroadcastAddress();
-                this.broadcastAddress = broadcast == null ? null : InetAddress.getByName(broadcast);
-
-                if (newHostAddress == null) {
-                    stopServer();
-                } else if (!newHostAddress.equals(oldHostAddress)) {
-                    stopServer();
-                    if (!this.handlers.isEmpty()) {
-                        startServer();
+                final InetAddress address = InetAddress.getByName(host);
+                interfaces.put(address, new Interface(address, 0,
+                        broadcast == null ? null : InetAddress.getByName(broadcast)));
+            }
+            for (final CidrAddress cidr : NetUtil.getAllInterfaceAddresses()) {
+                final InetAddress address = cidr.getAddress();
+                if (address instanceof Inet4Address && !address.isLoopbackAddress()) {
+                    // a broadcast address configured for the primary interface wins over the computed one
+                    final Interface primary = interfaces.get(address);
+                    InetAddress broadcast = primary == null ? null : primary.broadcast;
+                    if (broadcast == null) {
+                        final String computed = NetUtil.getIpv4NetBroadcastAddress(address.getHostAddress(),
+                                (short) cidr.getPrefix());
+                        broadcast = computed == null ? null : InetAddress.getByName(computed);
                     }
+                    interfaces.put(address, new Interface(address, cidr.getPrefix(), broadcast));
+                }
+            }
+
+            if (!interfaces.equals(this.interfaces)) {
+                logger.debug("Using network interfaces {}", interfaces.keySet());
+                this.interfaces = interfaces;
+                stopServer();
+                if (!interfaces.isEmpty() && !this.handlers.isEmpty()) {
+                    startServer();
                 }
-            } catch (IOException e) {
-                logger.error("Unable to configure network", e);
             }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Unable to configure network", e);
         }
     }
 
     @Deactivate
     public void dispose() {
         this.handlers.clear();
+        this.linked.clear();
+        this.devices.clear();
+        this.cache.save();
         final NetworkAddressService network = this.network;
         if (network != null) {
             network.removeNetworkAddressChangeListener(this);
         }
         stopServer();
     }
+
+    /**
+     * A preallocated slot holding a datagram copied out of the receive buffer, waiting for the worker together with the
+     * address it came from.
+     */
+    private static final class Received {
+        final byte[] data = new byte[MAX_PACKET_SIZE];
+        final ByteBuffer view = ByteBuffer.wrap(this.data).asReadOnlyBuffer();
+        int length;
+        @Nullable
+        InetAddress address;
+    }
+
+    /**
+     * A local IPv4 interface address, its prefix length and its subnet's broadcast address.
+     */
+    private static final class Interface {
+        final InetAddress address;
+        final int prefix;
+        final @Nullable InetAddress broadcast;
+
+        Interface(final InetAddress address, final int prefix, final @Nullable InetAddress broadcast) {
+            this.address = address;
+            this.prefix = prefix;
+            this.broadcast = broadcast;
+        }
+
+        boolean contains(final InetAddress other) {
+            if (this.prefix <= 0 || !(other instanceof Inet4Address)) {
+                return false;
+            }
+            final int mask = -1 << (32 - this.prefix);
+            return (toInt(this.address) & mask) == (toInt(other) & mask);
+        }
+
+        private static int toInt(final InetAddress address) {
+            final byte[] bytes = address.getAddress();
+            return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | (bytes[3] & 0xFF);
+        }
+
+        @Override
+        public boolean equals(final @Nullable Object obj) {
+            if (!(obj instanceof Interface)) {
+                return false;
+            }
+            final Interface other = (Interface) obj;
+            final InetAddress broadcast = this.broadcast;
+            return this.address.equals(other.address) && this.prefix == other.prefix
+                    && (broadcast == null ? other.broadcast == null : broadcast.equals(other.broadcast));
+        }
+
+        @Override
+        public int hashCode() {
+            return this.address.hashCode();
+        }
+    }
+
+    /**
+     * A channel bound to one local interface.
+     */
+    private static final class Endpoint {
+        final Interface iface;
+        final DatagramChannel channel;
+
+        Endpoint(final Interface iface, final DatagramChannel channel) {
+            this.iface = iface;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A device found by discovery scans, kept between scans so a rescan only reports what changed.
+     */
+    private static final class KnownDevice {
+        final int serialNumber;
+        volatile long lastSeen;
+        volatile long lastDiscovered;
+        volatile int missedScans;
+        volatile @Nullable String name;
+        volatile byte productId;
+
+        KnownDevice(final int serialNumber) {
+            this.serialNumber = serialNumber;
+        }
+    }
 }
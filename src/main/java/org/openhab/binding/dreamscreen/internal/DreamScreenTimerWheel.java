@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link DreamScreenTimerWheel} class is a hashed timer wheel that tracks deadlines for many items with a single
+ * periodic {@link #tick()}.
+ *
+ * Deadlines are not rescheduled when they move. Instead each item's current deadline is read when its slot comes
+ * around, and the item is put back on the wheel if that deadline is still in the future. Moving a deadline is
+ * therefore just a write to the item.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenTimerWheel<T> {
+    private final long tickNanos;
+    private final int mask;
+    private final List<List<Entry<T>>> slots;
+    private final Map<T, Entry<T>> scheduled = new IdentityHashMap<>();
+    private final ToLongFunction<T> deadline;
+    private final Consumer<T> expired;
+    private long tick = 0;
+
+    /**
+     * @param tickNanos how often {@link #tick()} is called
+     * @param size the number of slots, rounded up to a power of two
+     * @param deadline reads an item's current deadline, in {@link System#nanoTime()} terms
+     * @param expired called, outside of any lock, for each item whose deadline has passed
+     */
+    public DreamScreenTimerWheel(final long tickNanos, final int size, final ToLongFunction<T> deadline,
+            final Consumer<T> expired) {
+        final int slotCount = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        this.tickNanos = tickNanos;
+        this.mask = slotCount - 1;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            this.slots.add(new ArrayList<>());
+        }
+        this.deadline = deadline;
+        this.expired = expired;
+    }
+
+    /**
+     * Starts tracking an item's deadline. Items already on the wheel are left where they are.
+     */
+    public synchronized void schedule(final T item) {
+        if (!this.scheduled.containsKey(item)) {
+            final Entry<T> entry = new Entry<>(item);
+            this.scheduled.put(item, entry);
+            insert(entry, System.nanoTime());
+        }
+    }
+
+    /**
+     * Stops tracking an item. Its entry is dropped the next time its slot comes around.
+     */
+    public synchronized void cancel(final T item) {
+        this.scheduled.remove(item);
+    }
+
+    public synchronized void clear() {
+        this.scheduled.clear();
+        for (final List<Entry<T>> slot : this.slots) {
+            slot.clear();
+        }
+    }
+
+    /**
+     * Advances the wheel by one slot, expiring the items in it whose deadline has passed.
+     */
+    public void tick() {
+        final List<T> expiredItems = new ArrayList<>();
+        synchronized (this) {
+            this.tick++;
+            final List<Entry<T>> slot = this.slots.get((int) (this.tick & this.mask));
+            if (slot.isEmpty()) {
+                return;
+            }
+            final long now = System.nanoTime();
+            final List<Entry<T>> due = new ArrayList<>();
+            final Iterator<Entry<T>> entries = slot.iterator();
+            while (entries.hasNext()) {
+                final Entry<T> entry = entries.next();
+                if (this.scheduled.get(entry.item) != entry) {
+                    entries.remove();
+                } else if (entry.rounds > 0) {
+                    entry.rounds--;
+                } else {
+                    entries.remove();
+                    due.add(entry);
+                }
+            }
+            for (final Entry<T> entry : due) {
+                if (this.deadline.applyAsLong(entry.item) - now <= 0) {
+                    this.scheduled.remove(entry.item);
+                    expiredItems.add(entry.item);
+                } else {
+                    insert(entry, now);
+                }
+            }
+        }
+        for (final T item : expiredItems) {
+            this.expired.accept(item);
+        }
+    }
+
+    private void insert(final Entry<T> entry, final long now) {
+        final long delay = this.deadline.applyAsLong(entry.item) - now;
+        final long ticks = Math.max(1, (delay + this.tickNanos - 1) / this.tickNanos);
+        final int size = this.mask + 1;
+        entry.rounds = (ticks - 1) / size;
+        this.slots.get((int) ((this.tick + ticks) & this.mask)).add(entry);
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        long rounds;
+
+        Entry(final T item) {
+            this.item = item;
+        }
+    }
+}
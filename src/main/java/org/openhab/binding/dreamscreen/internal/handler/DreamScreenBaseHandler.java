@@ -20,20 +20,19 @@ import static org.openhab.binding.dreamscreen.internal.model.DreamScreenMode.*;
 import static org.openhab.binding.dreamscreen.internal.model.DreamScreenScene.*;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.net.InetAddress;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.nio.ByteBuffer;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
-import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -41,6 +40,8 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.UnDefType;
 import org.openhab.binding.dreamscreen.internal.DreamScreenConfiguration;
 import org.openhab.binding.dreamscreen.internal.DreamScreenServer;
 import org.openhab.binding.dreamscreen.internal.message.AmbientModeTypeMessage;
@@ -49,7 +50,8 @@ import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessage;
 import org.openhab.binding.dreamscreen.internal.message.ModeMessage;
 import org.openhab.binding.dreamscreen.internal.message.RefreshMessage;
 import org.openhab.binding.dreamscreen.internal.message.SceneMessage;
-import org.openhab.binding.dreamscreen.internal.message.SerialNumberMessage;
+import org.openhab.binding.dreamscreen.internal.metrics.DreamScreenDeviceMetrics;
+import org.openhab.binding.dreamscreen.internal.model.DreamScreenColor;
 import org.openhab.binding.dreamscreen.internal.model.DreamScreenMode;
 import org.openhab.binding.dreamscreen.internal.model.DreamScreenScene;
 import org.osgi.framework.BundleContext;
@@ -65,14 +67,35 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public abstract class DreamScreenBaseHandler extends BaseThingHandler {
+    private static final int RESPONSE_TIMEOUT_MS = 100;
+    private static final int MIN_STREAM_RATE = 30;
+    private static final int MAX_STREAM_RATE = 60;
+    private static final int NO_FRAME = -1;
+    private static final long METRICS_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // a single lost poll reply must not take a device offline
+    private static final int MIN_OFFLINE_TIMEOUT_SECONDS = 2 * DreamScreenServer.MAX_POLL_SECONDS + 30;
+    private static final int MAX_RETRANSMITS = 3;
+    private static final long DUPLICATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int SEND_READ = 0;
+    private static final int SEND_WRITE = 1;
+    private static final int SEND_GROUP_WRITE = 2;
+    private static final InFlight CLAIMED = new InFlight(new RefreshMessage(), SEND_READ, 0);
+
     private final Logger logger = LoggerFactory.getLogger(DreamScreenBaseHandler.class);
 
     private @Nullable ServiceTracker<DreamScreenServer, DreamScreenServer> serverTracker;
     private @Nullable DreamScreenServer server;
-    private Queue<DreamScreenMessage> writes = new ConcurrentLinkedQueue<>();
-    private Queue<DreamScreenMessage> reads = new ConcurrentLinkedQueue<>();
-    private @Nullable ScheduledFuture<?> sending;
-    private boolean messagesPaused = false;
+    private final DreamScreenMessageQueue writes = new DreamScreenMessageQueue();
+    private final DreamScreenMessageQueue groupWrites = new DreamScreenMessageQueue();
+    private final DreamScreenMessageQueue reads = new DreamScreenMessageQueue();
+    private final DreamScreenDeviceMetrics metrics = new DreamScreenDeviceMetrics(
+            () -> this.writes.size() + this.groupWrites.size(), this.reads::size);
+    private long metricsPublished = 0;
+    private final AtomicReference<@Nullable InFlight> inFlight = new AtomicReference<>();
+    private volatile boolean messagesPaused = false;
+    private long retransmittedHash = 0;
+    private long retransmittedAt = 0;
+    private int retransmittedCopies = 0;
 
     protected int serialNumber;
     private @Nullable InetAddress address;
@@ -83,8 +106,28 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
     private byte ambientModeType = COLOR.ambientModeType;
     private byte ambientScene = RANDOM_COLOR.ambientScene;
     private @Nullable DreamScreenScene newScene = null;
+    private boolean newSceneToGroup = false;
+    // guards color and publishedColor, which the worker and the streaming task both update
+    private final Object colorLock = new Object();
     private HSBType color = HSBType.WHITE;
-    private boolean isOnline = false;
+    private final DreamScreenColor colors = new DreamScreenColor();
+    private volatile boolean isOnline = false;
+    private volatile long lastSeen = 0;
+    private long offlineTimeoutNanos = TimeUnit.SECONDS.toNanos(180);
+
+    // last states published to each channel, so unchanged device state is not published again
+    private @Nullable OnOffType publishedPower;
+    private @Nullable DreamScreenMode publishedMode;
+    private @Nullable DreamScreenScene publishedScene;
+    private int publishedColor = NO_FRAME;
+
+    private final AtomicInteger streamFrame = new AtomicInteger(NO_FRAME);
+    private final ByteBuffer streamPacket = ByteBuffer.allocateDirect(10);
+    private @Nullable ScheduledFuture<?> streaming;
+    private volatile boolean isStreaming = false;
+    private int streamRate = MIN_STREAM_RATE;
+    private int streamIdleFrames = 0;
+    private int streamedColor = NO_FRAME;
 
     public DreamScreenBaseHandler(final Thing thing) {
         super(thing);
@@ -94,7 +137,16 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
     public void initialize() {
         DreamScreenConfiguration config = getConfigAs(DreamScreenConfiguration.class);
         updateStatus(UNKNOWN);
+        this.publishedPower = null;
+        this.publishedMode = null;
+        this.publishedScene = null;
+        synchronized (this.colorLock) {
+            this.publishedColor = NO_FRAME;
+        }
         this.serialNumber = Integer.valueOf(config.serialNumber);
+        this.streamRate = Math.max(MIN_STREAM_RATE, Math.min(MAX_STREAM_RATE, config.streamRate));
+        this.offlineTimeoutNanos = TimeUnit.SECONDS
+                .toNanos(Math.max(MIN_OFFLINE_TIMEOUT_SECONDS, config.offlineTimeout));
         logger.debug("Initializing {}", this.serialNumber);
 
         DreamScreenServer server = this.server;
@@ -107,16 +159,31 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         switch (channelUID.getId()) {
             case CHANNEL_POWER:
-                powerCommand(command);
+                powerCommand(command, false);
                 break;
             case CHANNEL_MODE:
-                modeCommand(command);
+                modeCommand(command, false);
                 break;
             case CHANNEL_SCENE:
-                sceneCommand(command);
+                sceneCommand(command, false);
                 break;
             case CHANNEL_COLOR:
-                colorCommand(command);
+                colorCommand(command, false);
+                break;
+            case CHANNEL_COLOR_STREAM:
+                colorStreamCommand(command);
+                break;
+            case CHANNEL_GROUP_POWER:
+                powerCommand(command, true);
+                break;
+            case CHANNEL_GROUP_MODE:
+                modeCommand(command, true);
+                break;
+            case CHANNEL_GROUP_SCENE:
+                sceneCommand(command, true);
+                break;
+            case CHANNEL_GROUP_COLOR:
+                colorCommand(command, true);
                 break;
         }
     }
@@ -124,16 +191,73 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
     protected void online() {
         if (!this.isOnline) {
             updateStatus(ONLINE);
+            final DreamScreenServer server = this.server;
+            if (server != null) {
+                server.watch(this);
+            }
         }
     }
 
+    /**
+     * Returns when this device will be considered offline if nothing more is heard from it.
+     */
+    public long getOfflineDeadline() {
+        return this.lastSeen + this.offlineTimeoutNanos;
+    }
+
+    /**
+     * Called by the server when nothing has been heard from the device for the offline timeout, either since it last
+     * answered or since it was linked to an address it never answered from.
+     */
+    public void offlineTimedOut() {
+        if (getThing().getStatus() != OFFLINE) {
+            logger.debug("No reply from {} for {} seconds", this.serialNumber,
+                    TimeUnit.NANOSECONDS.toSeconds(this.offlineTimeoutNanos));
+            updateStatus(OFFLINE, COMMUNICATION_ERROR, "No reply from device");
+        }
+    }
+
+    public int getSerialNumber() {
+        return this.serialNumber;
+    }
+
+    public @Nullable InetAddress getAddress() {
+        return this.address;
+    }
+
+    public byte getGroup() {
+        return this.group;
+    }
+
+    public boolean isOnline() {
+        return this.isOnline;
+    }
+
+    public DreamScreenDeviceMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Processes a message received from the device's address. The {@link DreamScreenServer} only routes messages
+     * from the address this handler was linked to.
+     */
     public final boolean message(final DreamScreenMessage msg, final InetAddress address) {
+        this.metrics.packetsReceived.increment();
+        final long now = System.nanoTime();
+        this.lastSeen = now;
         pauseMessages();
         try {
-            if (msg instanceof SerialNumberMessage) {
-                return link(((SerialNumberMessage) msg).getSerialNumber(), address);
-            } else if (!address.equals(this.address)) {
-                return false;
+            final InFlight answered = answered(msg);
+            if (answered == null && isDuplicate(msg, now)) {
+                this.metrics.duplicatesDropped.increment();
+                logger.trace("Ignoring duplicate {} from {}", msg, this.serialNumber);
+                return true;
+            }
+            if (answered != null && answered.attempt > 0) {
+                // the device may still echo the other copies of this write
+                this.retransmittedHash = msg.contentHash();
+                this.retransmittedAt = now;
+                this.retransmittedCopies = answered.attempt;
             }
             return processMsg(msg, address);
         } finally {
@@ -141,6 +265,21 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Recognizes an extra echo of a write that was retransmitted after its first echo was merely late. Processing it
+     * again would replay steps of a scene change. Only as many copies as there were retransmits are dropped, within a
+     * window that starts when the write was answered, so a value that is legitimately sent twice is still processed.
+     * Messages are only processed by the server's worker thread, so this needs no locking.
+     */
+    private boolean isDuplicate(final DreamScreenMessage msg, final long now) {
+        if (this.retransmittedCopies > 0 && now - this.retransmittedAt < DUPLICATE_WINDOW_NANOS
+                && msg.contentHash() == this.retransmittedHash) {
+            this.retransmittedCopies--;
+            return true;
+        }
+        return false;
+    }
+
     protected boolean processMsg(final DreamScreenMessage msg, final InetAddress address) {
         if (msg instanceof RefreshMessage) {
             return refreshMsg((RefreshMessage) msg);
@@ -156,48 +295,92 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         return true;
     }
 
-    public boolean link(final int serialNumber, final InetAddress address) {
-        if (this.serialNumber == serialNumber) {
-            logger.debug("Linking {} to {}", serialNumber, address);
-            this.address = address;
+    public void link(final InetAddress address) {
+        logger.debug("Linking {} to {}", this.serialNumber, address);
+        this.address = address;
+        this.lastSeen = System.nanoTime();
 
-            write(new RefreshMessage());
-            return true;
-        }
-        return false;
+        write(new RefreshMessage());
     }
 
     protected boolean refreshMsg(final RefreshMessage msg) {
         online();
         this.group = msg.getGroup();
-        modeRefresh(msg.getMode());
-        colorRefresh(msg.getRed(), msg.getGreen(), msg.getBlue());
+        final boolean modeChanged = modeRefresh(msg.getMode());
+        final boolean colorChanged = colorRefresh(msg.getRed(), msg.getGreen(), msg.getBlue());
+        final boolean sceneChanged = msg.getScene() != this.ambientScene || this.publishedScene == null;
         this.ambientScene = msg.getScene(); // ambientSceneRefresh(msg.getScene());
-        read(new AmbientModeTypeMessage(this.group, this.ambientModeType));
+        if (modeChanged || colorChanged || sceneChanged) {
+            stateChanged();
+        }
+        // a refresh doesn't carry the ambient mode type, so it is only read when the scene may have changed, keeping
+        // an unchanged poll reply from costing another packet per device
+        if (modeChanged || sceneChanged) {
+            read(new AmbientModeTypeMessage(this.group, this.ambientModeType));
+        }
+        metricsRefresh();
         return true;
     }
 
-    private void powerCommand(Command command) {
+    /**
+     * Publishes the device's traffic counters to its metrics channels, at most once a minute.
+     */
+    private void metricsRefresh() {
+        final long now = System.nanoTime();
+        if (this.metricsPublished == 0 || now - this.metricsPublished >= METRICS_INTERVAL_NANOS) {
+            this.metricsPublished = now;
+            updateState(CHANNEL_PACKETS_RECEIVED, new DecimalType(this.metrics.packetsReceived.sum()));
+            updateState(CHANNEL_PACKETS_SENT, new DecimalType(this.metrics.packetsSent.sum()));
+            updateState(CHANNEL_RESPONSE_LATENCY_MEDIAN, latencyState(0.5));
+            updateState(CHANNEL_RESPONSE_LATENCY_99TH, latencyState(0.99));
+        }
+    }
+
+    /**
+     * Returns the latency bucket bound in milliseconds, or UNDEF without samples or beyond the largest bucket.
+     */
+    private State latencyState(final double quantile) {
+        final long millis = this.metrics.responseLatency.quantileMillis(quantile);
+        return millis < 0 || millis == Long.MAX_VALUE ? UnDefType.UNDEF : new DecimalType(millis);
+    }
+
+    /**
+     * Tells the server a refresh found the device in a different state than last published, so it keeps polling
+     * often while things are changing.
+     */
+    protected void stateChanged() {
+        final DreamScreenServer server = this.server;
+        if (server != null) {
+            server.stateChanged();
+        }
+    }
+
+    private void powerCommand(Command command, boolean toGroup) {
         if (command instanceof OnOffType) {
             logger.debug("Changing {} power to {}", this.serialNumber, command);
-            write(new ModeMessage(this.group, command == ON ? powerOnMode.deviceMode : 0));
-        } else if (command instanceof RefreshType) {
+            write(new ModeMessage(this.group, command == ON ? powerOnMode.deviceMode : 0), toGroup);
+        } else if (command instanceof RefreshType && !toGroup) {
+            this.publishedPower = this.mode == 0 ? OFF : ON;
             updateState(CHANNEL_POWER, this.mode == 0 ? OFF : ON);
         }
     }
 
-    private void modeCommand(Command command) {
+    private void modeCommand(Command command, boolean toGroup) {
         if (command instanceof DecimalType) {
             logger.debug("Changing {} mode to {}", this.serialNumber, command);
             final DreamScreenMode mode = DreamScreenMode.fromState((DecimalType) command);
-            if (this.mode != 0) {
-                write(new ModeMessage(this.group, mode.deviceMode));
+            if (mode == null) {
+                logger.debug("Ignoring unknown mode {} for {}", command, this.serialNumber);
+            } else if (this.mode != 0 || toGroup) {
+                write(new ModeMessage(this.group, mode.deviceMode), toGroup);
             } else {
                 this.powerOnMode = mode;
             }
-        } else if (command instanceof RefreshType) {
-            updateState(CHANNEL_MODE,
-                    this.mode == 0 ? this.powerOnMode.state() : DreamScreenMode.fromDevice(this.mode).state());
+        } else if (command instanceof RefreshType && !toGroup) {
+            final DreamScreenMode deviceMode = DreamScreenMode.fromDevice(this.mode);
+            final DreamScreenMode mode = deviceMode == null ? this.powerOnMode : deviceMode;
+            this.publishedMode = mode;
+            updateState(CHANNEL_MODE, mode.state());
         }
     }
 
@@ -207,32 +390,62 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         if (msg.getMode() == AMBIENT.deviceMode) {
             DreamScreenScene updateToScene = this.newScene;
             if (updateToScene != null) {
-                write(new AmbientModeTypeMessage(this.group, updateToScene.ambientModeType));
+                write(new AmbientModeTypeMessage(this.group, updateToScene.ambientModeType), this.newSceneToGroup);
             }
         }
         return true;
     }
 
-    private void modeRefresh(final byte newDeviceMode) {
+    private boolean modeRefresh(final byte newDeviceMode) {
         this.mode = newDeviceMode;
 
         final DreamScreenMode newMode = DreamScreenMode.fromDevice(newDeviceMode);
-        if (newMode == null) {
-            updateState(CHANNEL_POWER, OFF);
+        if (newDeviceMode == 0) {
+            return publishPower(OFF);
+        } else if (newMode == null) {
+            logger.debug("Unknown mode {} reported by {}", newDeviceMode, this.serialNumber);
+            return publishPower(ON);
         } else {
-            updateState(CHANNEL_POWER, ON);
             this.powerOnMode = newMode;
-            updateState(CHANNEL_MODE, newMode.state());
+            return publishPower(ON) | publishMode(newMode);
+        }
+    }
+
+    private boolean publishPower(final OnOffType power) {
+        if (power == this.publishedPower) {
+            return false;
+        }
+        this.publishedPower = power;
+        updateState(CHANNEL_POWER, power);
+        return true;
+    }
+
+    private boolean publishMode(final DreamScreenMode mode) {
+        if (mode == this.publishedMode) {
+            return false;
         }
+        this.publishedMode = mode;
+        updateState(CHANNEL_MODE, mode.state());
+        return true;
     }
 
-    private void sceneCommand(Command command) {
+    /**
+     * Changes the scene, which takes up to three steps: switching to ambient mode, switching the ambient mode type and
+     * finally selecting the scene. Each step is sent when the echo of the previous one arrives. Group members may all
+     * be in different states, so a group change always starts with the first step.
+     */
+    private void sceneCommand(Command command, boolean toGroup) {
         if (command instanceof DecimalType) {
             logger.debug("Changing {} scene to {}", this.serialNumber, command);
             final DreamScreenScene scene = DreamScreenScene.fromState((DecimalType) command);
-            if (this.mode != AMBIENT.deviceMode) {
+            if (scene == null) {
+                logger.debug("Ignoring unknown scene {} for {}", command, this.serialNumber);
+                return;
+            }
+            this.newSceneToGroup = toGroup;
+            if (this.mode != AMBIENT.deviceMode || toGroup) {
                 this.newScene = scene;
-                write(new ModeMessage(this.group, AMBIENT.deviceMode));
+                write(new ModeMessage(this.group, AMBIENT.deviceMode), toGroup);
             } else if (scene.ambientModeType != this.ambientModeType) {
                 this.newScene = scene;
                 write(new AmbientModeTypeMessage(this.group, scene.ambientModeType));
@@ -240,8 +453,12 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
                 this.newScene = null;
                 write(new SceneMessage(this.group, scene.ambientScene));
             }
-        } else if (command instanceof RefreshType) {
-            updateState(CHANNEL_SCENE, DreamScreenScene.fromDevice(this.ambientModeType, this.ambientScene).state());
+        } else if (command instanceof RefreshType && !toGroup) {
+            final DreamScreenScene scene = DreamScreenScene.fromDevice(this.ambientModeType, this.ambientScene);
+            if (scene != null) {
+                this.publishedScene = scene;
+                updateState(CHANNEL_SCENE, scene.state());
+            }
         }
     }
 
@@ -252,13 +469,12 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         final DreamScreenScene updateToScene = newScene;
         if (updateToScene != null && updateToScene.ambientModeType == msg.getAmbientModeType()) {
             if (msg.getAmbientModeType() == COLOR.ambientModeType) {
-                updateState(CHANNEL_SCENE, COLOR.state());
+                publishScene(COLOR);
             } else {
-                write(new SceneMessage(this.group, updateToScene.ambientScene));
+                write(new SceneMessage(this.group, updateToScene.ambientScene), this.newSceneToGroup);
             }
         } else {
-            updateState(CHANNEL_SCENE,
-                    DreamScreenScene.fromDevice(msg.getAmbientModeType(), this.ambientScene).state());
+            publishScene(DreamScreenScene.fromDevice(msg.getAmbientModeType(), this.ambientScene));
         }
         this.newScene = null;
         return true;
@@ -266,130 +482,319 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
 
     private boolean ambientSceneMsg(final SceneMessage msg) {
         online();
-        DreamScreenScene scene = DreamScreenScene.fromDeviceScene(msg.getScene());
-        this.ambientModeType = scene.ambientModeType;
-        ambientSceneRefresh(scene.ambientScene);
+        final DreamScreenScene scene = DreamScreenScene.fromDeviceScene(msg.getScene());
+        if (scene == null) {
+            logger.debug("Unknown scene {} reported by {}", msg.getScene(), this.serialNumber);
+        } else {
+            this.ambientModeType = scene.ambientModeType;
+            ambientSceneRefresh(scene.ambientScene);
+        }
         this.newScene = null;
         return true;
     }
 
-    private void ambientSceneRefresh(final byte newAmbientScene) {
+    private boolean ambientSceneRefresh(final byte newAmbientScene) {
         this.ambientScene = newAmbientScene;
-        updateState(CHANNEL_SCENE, DreamScreenScene.fromDevice(this.ambientModeType, this.ambientScene).state());
+        return publishScene(DreamScreenScene.fromDevice(this.ambientModeType, this.ambientScene));
     }
 
-    private void colorCommand(Command command) {
+    private boolean publishScene(final @Nullable DreamScreenScene scene) {
+        if (scene == null || scene == this.publishedScene) {
+            return false;
+        }
+        this.publishedScene = scene;
+        updateState(CHANNEL_SCENE, scene.state());
+        return true;
+    }
+
+    private void colorCommand(Command command, boolean toGroup) {
         if (command instanceof HSBType) {
             logger.debug("Changing {} color to {}", this.serialNumber, command);
             final HSBType color = (HSBType) command;
 
-            write(buildColorMsg(color));
-            if (this.mode != AMBIENT.deviceMode) {
+            write(buildColorMsg(color), toGroup);
+            this.newSceneToGroup = toGroup;
+            if (this.mode != AMBIENT.deviceMode || toGroup) {
                 this.newScene = COLOR;
-                this.color = color;
-                write(new ModeMessage(this.group, AMBIENT.deviceMode));
+                setColor(color);
+                write(new ModeMessage(this.group, AMBIENT.deviceMode), toGroup);
             } else if (this.ambientModeType != COLOR.ambientModeType) {
                 this.newScene = COLOR;
-                this.color = color;
+                setColor(color);
                 write(new AmbientModeTypeMessage(this.group, COLOR.ambientModeType));
             }
-        } else if (command instanceof RefreshType) {
-            updateState(CHANNEL_COLOR, this.color);
+        } else if (command instanceof RefreshType && !toGroup) {
+            synchronized (this.colorLock) {
+                this.publishedColor = this.colors.toRGB(this.color);
+                updateState(CHANNEL_COLOR, this.color);
+            }
         }
     }
 
-    private ColorMessage buildColorMsg(HSBType color) {
-        final PercentType[] rgb = color.toRGB();
-        final byte red = colorByte(rgb[0]);
-        final byte green = colorByte(rgb[1]);
-        final byte blue = colorByte(rgb[2]);
-        return new ColorMessage(this.group, red, green, blue);
+    private void setColor(final HSBType color) {
+        synchronized (this.colorLock) {
+            this.color = color;
+        }
     }
 
-    private byte colorByte(PercentType percent) {
-        return percent.toBigDecimal().multiply(BigDecimal.valueOf(255))
-                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP).byteValue();
+    /**
+     * Streams colors straight to the device at the configured frame rate, bypassing the message queues. Only the
+     * latest color is kept, so frames that arrive faster than the rate are dropped rather than falling behind.
+     */
+    private void colorStreamCommand(Command command) {
+        if (command instanceof HSBType) {
+            final HSBType color = (HSBType) command;
+            if (this.mode != AMBIENT.deviceMode || this.ambientModeType != COLOR.ambientModeType) {
+                colorCommand(color, false);
+            }
+
+            this.streamFrame.set(this.colors.toRGB(color));
+            startStreaming();
+        }
+    }
+
+    private void startStreaming() {
+        synchronized (this.streamPacket) {
+            final ScheduledFuture<?> streaming = this.streaming;
+            if (streaming == null || streaming.isDone()) {
+                logger.debug("Streaming colors to {} at {} frames per second", this.serialNumber, this.streamRate);
+                this.isStreaming = true;
+                this.streamIdleFrames = 0;
+                this.streaming = this.scheduler.scheduleAtFixedRate(this::streamFrame, 0,
+                        TimeUnit.SECONDS.toMicros(1) / this.streamRate, TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    private void stopStreaming() {
+        synchronized (this.streamPacket) {
+            final ScheduledFuture<?> streaming = this.streaming;
+            if (streaming != null) {
+                streaming.cancel(false);
+                this.streaming = null;
+            }
+            this.isStreaming = false;
+        }
+    }
+
+    private void streamFrame() {
+        final int frame = this.streamFrame.getAndSet(NO_FRAME);
+        if (frame == NO_FRAME) {
+            if (++this.streamIdleFrames >= this.streamRate) {
+                logger.debug("Stopped streaming colors to {}", this.serialNumber);
+                stopStreaming();
+                final int color = this.streamedColor;
+                if (color != NO_FRAME) {
+                    colorRefresh((byte) (color >> 16), (byte) (color >> 8), (byte) color);
+                }
+            }
+            return;
+        }
+        this.streamIdleFrames = 0;
+        this.streamedColor = frame;
+
+        final DreamScreenServer server = this.server;
+        final InetAddress address = this.address;
+        if (server != null && address != null) {
+            final ByteBuffer packet = this.streamPacket;
+            packet.clear();
+            ColorMessage.putFrame(packet, this.group, (byte) (frame >> 16), (byte) (frame >> 8), (byte) frame);
+            packet.flip();
+            try {
+                server.send(packet, address);
+                this.metrics.packetsSent.increment();
+            } catch (IOException e) {
+                logger.debug("Unable to stream color to {}", this.serialNumber, e);
+            }
+        }
+    }
+
+    protected ColorMessage buildColorMsg(HSBType color) {
+        final int rgb = this.colors.toRGB(color);
+        return new ColorMessage(this.group, (byte) (rgb >> 16), (byte) (rgb >> 8), (byte) rgb);
     }
 
     private boolean colorMsg(final ColorMessage msg) {
         online();
+        if (this.isStreaming) {
+            // echoes of streamed frames would flood the event bus
+            return true;
+        }
         colorRefresh(msg.getRed(), msg.getGreen(), msg.getBlue());
         return true;
     }
 
-    private void colorRefresh(final byte red, final byte green, final byte blue) {
-        this.color = HSBType.fromRGB(red & 0xFF, green & 0xFF, blue & 0xFF);
-        updateState(CHANNEL_COLOR, this.color);
+    /**
+     * Publishes the device's color when its raw bytes differ from the last color published, so the
+     * {@link HSBType} is only looked up for an actual change. Both the worker and the streaming task publish colors,
+     * so the check, the update and the publish happen under one lock and colors are published in the order they are
+     * recorded.
+     */
+    private boolean colorRefresh(final byte red, final byte green, final byte blue) {
+        final int rgb = (red & 0xFF) << 16 | (green & 0xFF) << 8 | (blue & 0xFF);
+        synchronized (this.colorLock) {
+            if (rgb == this.publishedColor) {
+                return false;
+            }
+            this.publishedColor = rgb;
+            this.color = this.colors.fromRGB(rgb);
+            updateState(CHANNEL_COLOR, this.color);
+            return true;
+        }
     }
 
+    /**
+     * Queues a read of the device's state. An unsent read of the same command is replaced.
+     */
     protected void read(final DreamScreenMessage msg) {
         this.reads.add(msg);
-        sendMessages(false);
+        sendMessages();
     }
 
+    /**
+     * Queues a change to the device's state. An unsent write of the same command is replaced, so the device converges
+     * on the latest value instead of replaying every intermediate one.
+     */
     protected void write(final DreamScreenMessage msg) {
         this.writes.add(msg);
-        sendMessages(false);
+        sendMessages();
+    }
+
+    /**
+     * Queues a change for every device in this device's group. It is sent once as a group broadcast, and this
+     * device's echo moves the queue along like any other write.
+     */
+    protected void writeGroup(final DreamScreenMessage msg) {
+        this.groupWrites.add(msg);
+        sendMessages();
+    }
+
+    private void write(final DreamScreenMessage msg, final boolean toGroup) {
+        if (toGroup) {
+            writeGroup(msg);
+        } else {
+            write(msg);
+        }
     }
 
     private void pauseMessages() {
-        synchronized (this) {
-            final ScheduledFuture<?> sending = this.sending;
-            this.messagesPaused = true;
-            if (sending != null && !sending.isCancelled()) {
-                sending.cancel(false);
-            }
+        this.messagesPaused = true;
+    }
+
+    /**
+     * Frees the in-flight slot if the message answers the message in it, returning the answered message. The next
+     * queued message is then sent as soon as this one is processed rather than waiting for the response timeout. The
+     * timeout is not cancelled; it finds the slot taken by another message and does nothing.
+     */
+    private @Nullable InFlight answered(final DreamScreenMessage msg) {
+        final InFlight flight = this.inFlight.get();
+        if (flight != null && flight != CLAIMED && msg.isResponseTo(flight.msg)
+                && this.inFlight.compareAndSet(flight, null)) {
+            this.metrics.responseLatency.record(System.nanoTime() - flight.sentAt);
+            return flight;
         }
+        return null;
     }
 
+    /**
+     * Resumes sending after a received message was processed.
+     */
     private void resumeMessages() {
-        synchronized (this) {
-            this.messagesPaused = false;
-            sendMessages(true);
+        this.messagesPaused = false;
+        sendMessages();
+    }
+
+    /**
+     * Gives up waiting on a message, unless it has already been answered. A write that has no newer value queued is
+     * sent again, up to {@link #MAX_RETRANSMITS} times, so a lost packet does not leave the device in an old state.
+     * Reads are not repeated since the next poll refreshes the device anyway.
+     */
+    private void responseTimedOut(final InFlight flight) {
+        if (this.inFlight.get() != flight) {
+            return;
+        }
+        logger.debug("No response from {} to {}", this.serialNumber, flight.msg);
+        if (flight.kind != SEND_READ && !(flight.kind == SEND_WRITE ? this.writes : this.groupWrites)
+                .contains(flight.msg.getCommand())) {
+            if (flight.attempt < MAX_RETRANSMITS) {
+                final InFlight retry = new InFlight(flight.msg, flight.kind, flight.attempt + 1);
+                if (this.inFlight.compareAndSet(flight, retry)) {
+                    this.metrics.retransmits.increment();
+                    send(retry);
+                }
+                return;
+            }
+            logger.debug("Giving up on {} to {} after {} retransmits", flight.msg, this.serialNumber,
+                    MAX_RETRANSMITS);
+            this.metrics.writesFailed.increment();
+        }
+        if (this.inFlight.compareAndSet(flight, null)) {
+            sendMessages();
         }
     }
 
-    private void sendMessages(final boolean delayed) {
-        synchronized (this) {
-            final ScheduledFuture<?> sending = this.sending;
-            if (!this.messagesPaused && (!this.writes.isEmpty() || !this.reads.isEmpty())) {
-                if (sending == null || sending.isCancelled()) {
-                    this.sending = this.scheduler.scheduleWithFixedDelay(this::sendMsg, delayed ? 15 : 0, 100,
-                            TimeUnit.MILLISECONDS);
+    /**
+     * Sends the next queued message unless one is still waiting on its response. Device writes take precedence over
+     * group writes, which take precedence over reads. Only one thread at a time wins the in-flight slot, so messages
+     * are sent in order without holding a lock during the send.
+     */
+    private void sendMessages() {
+        while (!this.messagesPaused
+                && !(this.writes.isEmpty() && this.groupWrites.isEmpty() && this.reads.isEmpty())) {
+            if (!this.inFlight.compareAndSet(null, CLAIMED)) {
+                return;
+            }
+            if (this.server == null || this.address == null) {
+                this.inFlight.set(null);
+                logger.debug("DreamScreen {} is not linked, holding messages", this.serialNumber);
+                return;
+            }
+
+            final int kind = !this.writes.isEmpty() ? SEND_WRITE
+                    : !this.groupWrites.isEmpty() ? SEND_GROUP_WRITE : SEND_READ;
+            final DreamScreenMessage msg = kind == SEND_WRITE ? this.writes.poll()
+                    : kind == SEND_GROUP_WRITE ? this.groupWrites.poll() : this.reads.poll();
+            if (msg != null) {
+                final InFlight flight = new InFlight(msg, kind, 0);
+                if (this.inFlight.compareAndSet(CLAIMED, flight)) {
+                    send(flight);
                 }
+                return;
             }
+            this.inFlight.set(null);
         }
     }
 
-    private void sendMsg() {
+    /**
+     * Sends a message the caller has already installed in the in-flight slot and schedules its response timeout. The
+     * slot is only ever released here by compare and set, so a flight that has since been answered or replaced is
+     * never put back. Each retransmit waits twice as long as the attempt before it, with some jitter so devices that
+     * lost the same broadcast do not all answer at once.
+     */
+    private void send(final InFlight flight) {
         final DreamScreenServer server = this.server;
         final InetAddress address = this.address;
-        if (server != null && address != null) {
-            synchronized (this) {
-                final ScheduledFuture<?> sending = this.sending;
-
-                if (!this.writes.isEmpty()) {
-                    final DreamScreenMessage msg = this.writes.poll();
-                    try {
-                        server.write(msg, address);
-                    } catch (IOException e) {
-                        logger.error("Unable to send write message {} to {}", msg, this.serialNumber, e);
-                        updateStatus(OFFLINE, COMMUNICATION_ERROR, "Cannot send message");
-                    }
-                } else if (!this.reads.isEmpty()) {
-                    final DreamScreenMessage msg = this.reads.poll();
-                    try {
-                        server.read(msg, address);
-                    } catch (IOException e) {
-                        logger.error("Unable to send read message {} to {}", msg, this.serialNumber, e);
-                        updateStatus(OFFLINE, COMMUNICATION_ERROR, "Cannot send message");
-                    }
-                } else if (sending != null) {
-                    sending.cancel(false);
-                }
+        if (server == null || address == null) {
+            this.inFlight.compareAndSet(flight, null);
+            return;
+        }
+        try {
+            if (flight.kind == SEND_WRITE) {
+                server.write(flight.msg, address);
+            } else if (flight.kind == SEND_GROUP_WRITE) {
+                server.writeGroup(flight.msg, this.group, address);
+            } else {
+                server.read(flight.msg, address);
             }
-        } else {
-            logger.warn("DreamScreen {} is not on-line", this.serialNumber);
+            this.metrics.packetsSent.increment();
+            final long timeout = (RESPONSE_TIMEOUT_MS << flight.attempt) * 1000;
+            this.scheduler.schedule(() -> responseTimedOut(flight),
+                    timeout * 3 / 4 + ThreadLocalRandom.current().nextLong(timeout / 2 + 1), TimeUnit.MICROSECONDS);
+        } catch (IOException e) {
+            this.inFlight.compareAndSet(flight, null);
+            logger.error("Unable to send {} message {} to {}", flight.kind == SEND_READ ? "read" : "write",
+                    flight.msg, this.serialNumber, e);
+            updateStatus(OFFLINE, COMMUNICATION_ERROR, "Cannot send message");
         }
     }
 
@@ -407,19 +812,15 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
             @Override
             public DreamScreenServer addingService(final @Nullable ServiceReference<DreamScreenServer> reference) {
                 final DreamScreenServer server = bundleContext.getService(reference);
-                DreamScreenBaseHandler.this.server = server;
-                if (DreamScreenBaseHandler.this.serialNumber != 0) {
-                    server.addHandler(DreamScreenBaseHandler.this);
-                }
+                serverAdded(server);
                 return server;
             }
 
             @Override
             public void removedService(final @Nullable ServiceReference<DreamScreenServer> reference,
                     final @Nullable DreamScreenServer service) {
-                if (service != null && service == DreamScreenBaseHandler.this.server) {
-                    service.removeHandler(DreamScreenBaseHandler.this);
-                    DreamScreenBaseHandler.this.server = null;
+                if (service != null) {
+                    serverRemoved(service);
                 }
             }
         };
@@ -427,6 +828,24 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         tracker.open();
     }
 
+    /**
+     * Connects the handler to the server that talks to its device. The server is tracked as a service inside the
+     * framework; tools that run the binding without one call this directly.
+     */
+    public void serverAdded(final DreamScreenServer server) {
+        this.server = server;
+        if (this.serialNumber != 0) {
+            server.addHandler(this);
+        }
+    }
+
+    public void serverRemoved(final DreamScreenServer server) {
+        if (server == this.server) {
+            server.removeHandler(this);
+            this.server = null;
+        }
+    }
+
     @Override
     public void unsetBundleContext(final BundleContext bundleContext) {
         final ServiceTracker<DreamScreenServer, DreamScreenServer> tracker = this.serverTracker;
@@ -441,6 +860,27 @@ public abstract class DreamScreenBaseHandler extends BaseThingHandler {
         if (server != null) {
             server.removeHandler(this);
         }
+        this.writes.clear();
+        this.groupWrites.clear();
+        this.reads.clear();
+        this.inFlight.set(null);
+        stopStreaming();
         super.dispose();
     }
+
+    /**
+     * A message sent to the device that is waiting for its response.
+     */
+    private static final class InFlight {
+        final DreamScreenMessage msg;
+        final int kind;
+        final int attempt;
+        final long sentAt = System.nanoTime();
+
+        InFlight(final DreamScreenMessage msg, final int kind, final int attempt) {
+            this.msg = msg;
+            this.kind = kind;
+            this.attempt = attempt;
+        }
+    }
 }
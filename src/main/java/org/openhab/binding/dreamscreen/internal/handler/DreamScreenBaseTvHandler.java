@@ -19,14 +19,23 @@ import org.slf4j.LoggerFactory;
 @NonNullByDefault
 public class DreamScreenBaseTvHandler extends DreamScreenBaseHandler {
     private final Logger logger = LoggerFactory.getLogger(DreamScreenBaseTvHandler.class);
+    private static final DecimalType[] INPUT_STATES = { new DecimalType(0), new DecimalType(1), new DecimalType(2) };
+
     private final DreamScreenInputDescriptionProvider descriptionProvider;
     private byte input = 0;
+    private int publishedInput = -1;
 
     public DreamScreenBaseTvHandler(Thing thing, DreamScreenInputDescriptionProvider descriptionProvider) {
         super(thing);
         this.descriptionProvider = descriptionProvider;
     }
 
+    @Override
+    public void initialize() {
+        this.publishedInput = -1;
+        super.initialize();
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (CHANNEL_INPUT.equals(channelUID.getId())) {
@@ -49,7 +58,9 @@ public class DreamScreenBaseTvHandler extends DreamScreenBaseHandler {
     protected boolean refreshTvMsg(final RefreshTvMessage msg) {
         online();
         inputNamesRefresh(msg);
-        inputRefresh(msg.getInput());
+        if (inputRefresh(msg.getInput())) {
+            stateChanged();
+        }
         return super.refreshMsg(msg);
     }
 
@@ -59,12 +70,13 @@ public class DreamScreenBaseTvHandler extends DreamScreenBaseHandler {
             byte newInput = ((DecimalType) command).byteValue();
             write(new InputMessage(this.group, newInput));
         } else if (command instanceof RefreshType) {
-            updateState(CHANNEL_INPUT, new DecimalType(this.input));
+            this.publishedInput = this.input & 0xFF;
+            updateState(CHANNEL_INPUT, inputState(this.input));
         }
     }
 
     private void inputNamesRefresh(final RefreshTvMessage msg) {
-        this.descriptionProvider.setInputDescriptions(msg.getInputName1(), msg.getInputName2(), msg.getInputName3());
+        this.descriptionProvider.setInputNames(getThing().getUID(), msg);
     }
 
     private boolean inputMsg(final InputMessage msg) {
@@ -73,9 +85,18 @@ public class DreamScreenBaseTvHandler extends DreamScreenBaseHandler {
         return true;
     }
 
-    private void inputRefresh(final byte newInput) {
+    private boolean inputRefresh(final byte newInput) {
         this.input = newInput;
-        updateState(CHANNEL_INPUT, new DecimalType(newInput));
+        if ((newInput & 0xFF) == this.publishedInput) {
+            return false;
+        }
+        this.publishedInput = newInput & 0xFF;
+        updateState(CHANNEL_INPUT, inputState(newInput));
+        return true;
+    }
+
+    private static DecimalType inputState(final byte input) {
+        return input >= 0 && input < INPUT_STATES.length ? INPUT_STATES[input] : new DecimalType(input);
     }
 
 }
@@ -16,47 +16,83 @@ import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstan
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.eclipse.smarthome.core.thing.type.DynamicStateDescriptionProvider;
 import org.eclipse.smarthome.core.types.StateDescription;
 import org.eclipse.smarthome.core.types.StateOption;
+import org.openhab.binding.dreamscreen.internal.message.RefreshTvMessage;
+import org.osgi.service.component.annotations.Component;
 
 /**
- * The {@link DreamScreenInputDescriptionProvider} provides dynamic channel state descriptions.
+ * The {@link DreamScreenInputDescriptionProvider} provides the input channel's options, named after the inputs
+ * configured on each DreamScreen TV. A single provider serves every thing, and the description of each thing is only
+ * rebuilt when the device reports different input names.
  *
  * @author Bruce Brouwer
  */
 @NonNullByDefault
+@Component(service = { DynamicStateDescriptionProvider.class, DreamScreenInputDescriptionProvider.class })
 public class DreamScreenInputDescriptionProvider implements DynamicStateDescriptionProvider {
+    private static final InputNames DEFAULT_NAMES = new InputNames(null, "Input 1", "Input 2", "Input 3");
 
-    private final ThingUID thingUID;
-    private String inputName1 = "Input 1", inputName2 = "Input 2", inputName3 = "Input 3";
+    private final Map<ThingUID, InputNames> things = new ConcurrentHashMap<>();
 
-    public DreamScreenInputDescriptionProvider(ThingUID thingUID) {
-        this.thingUID = thingUID;
+    public void addThing(final ThingUID thingUID) {
+        this.things.putIfAbsent(thingUID, DEFAULT_NAMES);
     }
 
-    public void setInputDescriptions(final String inputName1, final String inputName2, final String inputName3) {
-        this.inputName1 = inputName1;
-        this.inputName2 = inputName2;
-        this.inputName3 = inputName3;
+    public void removeThing(final ThingUID thingUID) {
+        this.things.remove(thingUID);
+    }
+
+    /**
+     * Updates the input names of a thing from a refresh, unless its raw name bytes are the ones already described.
+     */
+    public void setInputNames(final ThingUID thingUID, final RefreshTvMessage msg) {
+        final InputNames current = this.things.get(thingUID);
+        if (current == null || (current.raw != null && msg.hasInputNames(current.raw))) {
+            return;
+        }
+        this.things.put(thingUID,
+                new InputNames(msg.getInputNames(), msg.getInputName1(), msg.getInputName2(), msg.getInputName3()));
     }
 
     @Override
     public @Nullable StateDescription getStateDescription(Channel channel,
             @Nullable StateDescription originalStateDescription, @Nullable Locale locale) {
-        if (channel.getUID().getThingUID().equals(thingUID) && CHANNEL_INPUT.equals(channel.getUID().getId())) {
-            final List<StateOption> options = Arrays.asList( //
-                    new StateOption("0", this.inputName1), new StateOption("1", this.inputName2),
-                    new StateOption("2", this.inputName3));
-            return new StateDescription(BigDecimal.ZERO, BigDecimal.valueOf(2), BigDecimal.ONE, null, false, options);
+        final ChannelUID channelUID = channel.getUID();
+        if (CHANNEL_INPUT.equals(channelUID.getId())) {
+            final InputNames names = this.things.get(channelUID.getThingUID());
+            return names == null ? null : names.description;
         }
         return null;
     }
+
+    /**
+     * The raw input names last reported by a device, and the description built from them.
+     */
+    private static final class InputNames {
+        final byte @Nullable [] raw;
+        final StateDescription description;
+
+        InputNames(final byte @Nullable [] raw, final String inputName1, final String inputName2,
+                final String inputName3) {
+            this.raw = raw;
+            final List<StateOption> options = Collections.unmodifiableList(Arrays.asList( //
+                    new StateOption("0", inputName1), new StateOption("1", inputName2),
+                    new StateOption("2", inputName3)));
+            this.description = new StateDescription(BigDecimal.ZERO, BigDecimal.valueOf(2), BigDecimal.ONE, null,
+                    false, options);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.handler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessage;
+
+/**
+ * The {@link DreamScreenMessageQueue} holds the messages waiting to be sent to a device. It keeps at most one message
+ * per command, so a newer message replaces an unsent one of the same command in its place in the queue while the order
+ * across different commands is preserved.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+class DreamScreenMessageQueue {
+    private final Map<Integer, DreamScreenMessage> messages = new LinkedHashMap<>();
+
+    public synchronized void add(final DreamScreenMessage msg) {
+        this.messages.put(msg.getCommand(), msg);
+    }
+
+    public synchronized @Nullable DreamScreenMessage poll() {
+        final Iterator<DreamScreenMessage> iterator = this.messages.values().iterator();
+        if (iterator.hasNext()) {
+            final DreamScreenMessage msg = iterator.next();
+            iterator.remove();
+            return msg;
+        }
+        return null;
+    }
+
+    public synchronized boolean contains(final int command) {
+        return this.messages.containsKey(command);
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.messages.isEmpty();
+    }
+
+    public synchronized int size() {
+        return this.messages.size();
+    }
+
+    public synchronized void clear() {
+        this.messages.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package org.openhab.binding.dreamscreen.internal.message;
 
+import java.nio.ByteBuffer;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
 @NonNullByDefault
@@ -7,28 +9,34 @@ public class ColorMessage extends DreamScreenMessage {
     static final byte COMMAND_UPPER = 0x03;
     static final byte COMMAND_LOWER = 0x05;
 
-    protected ColorMessage(final byte[] data, final int off) {
-        super(data, off);
+    ColorMessage() {
     }
 
     public ColorMessage(byte group, byte red, byte green, byte blue) {
         super(group, COMMAND_UPPER, COMMAND_LOWER, new byte[] { red, green, blue });
     }
 
-    static boolean matches(final byte[] data, final int off) {
-        return matches(data, off, COMMAND_UPPER, COMMAND_LOWER);
+    /**
+     * Encodes a color write at the buffer's position without creating a message, for streaming frames to a device.
+     */
+    public static void putFrame(final ByteBuffer dst, final byte group, final byte red, final byte green,
+            final byte blue) {
+        final int off = dst.position();
+        putHeader(dst, 3, group, FLAGS_WRITE, COMMAND_UPPER, COMMAND_LOWER);
+        dst.put(red).put(green).put(blue);
+        putCRC(dst, off);
     }
 
     public byte getRed() {
-        return this.payload.get(0);
+        return getByte(0);
     }
 
     public byte getGreen() {
-        return this.payload.get(1);
+        return getByte(1);
     }
 
     public byte getBlue() {
-        return this.payload.get(2);
+        return getByte(2);
     }
 
     @Override
@@ -1,69 +1,63 @@
 package org.openhab.binding.dreamscreen.internal.message;
 
-import java.net.DatagramPacket;
-import java.net.InetAddress;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageRegistry.Decoder;
 
 @NonNullByDefault
 public abstract class DreamScreenMessage {
-    private final byte group;
-    private final byte commandUpper;
-    private final byte commandLower;
-    protected final ByteBuffer payload;
-    protected final int payloadLen;
-
-    public static DreamScreenMessage fromPacket(final DatagramPacket packet) throws DreamScreenMessageInvalid {
-        final int len = packet.getLength();
-        final int off = packet.getOffset();
-        final byte[] data = packet.getData();
-        final int msgLen;
-
-        if (len > 6 && data[off] == (byte) 0xFC) {
-            msgLen = data[off + 1] & 0xFF;
+    static final byte FLAGS_READ = 0x16;
+    static final byte FLAGS_WRITE = 0x17;
+    static final byte FLAGS_GROUP_WRITE = 0x21;
+    static final byte FLAGS_BROADCAST_READ = 0x30;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private byte group;
+    private byte commandUpper;
+    private byte commandLower;
+    protected ByteBuffer payload;
+    protected int payloadLen;
+    private int payloadOff;
+    private int off;
+    private boolean view;
+
+    static void validate(final ByteBuffer data) throws DreamScreenMessageInvalid {
+        final int off = data.position();
+        final int len = data.remaining();
+
+        if (len > 6 && data.get(off) == (byte) 0xFC) {
+            final int msgLen = data.get(off + 1) & 0xFF;
             if (msgLen + 2 > len) {
                 throw new DreamScreenMessageInvalid("Invalid length");
-            } else if (data[off + msgLen + 1] != calcCRC8(data, off)) {
+            } else if (data.get(off + msgLen + 1) != calcCRC8(data, off)) {
                 throw new DreamScreenMessageInvalid("Invalid CRC");
             }
         } else {
             throw new DreamScreenMessageInvalid("Message not long enough");
         }
-
-        if (SerialNumberMessage.matches(data, off)) {
-            return new SerialNumberMessage(data, off);
-        } else if (RefreshTvMessage.matches(data, off)) {
-            return new RefreshTvMessage(data, off);
-        } else if (RefreshMessage.matches(data, off)) {
-            return new RefreshMessage(data, off);
-        } else if (ModeMessage.matches(data, off)) {
-            return new ModeMessage(data, off);
-        } else if (InputMessage.matches(data, off)) {
-            return new InputMessage(data, off);
-        } else if (ColorMessage.matches(data, off)) {
-            return new ColorMessage(data, off);
-        } else if (AmbientModeTypeMessage.matches(data, off)) {
-            return new AmbientModeTypeMessage(data, off);
-        } else if (SceneMessage.matches(data, off)) {
-            return new SceneMessage(data, off);
-        }
-        throw new DreamScreenMessageInvalid("Message not currently handled");
     }
 
-    protected static boolean matches(byte[] data, int off, byte commandUpper, byte commandLower) {
-        return data[off + 4] == commandUpper && data[off + 5] == commandLower;
+    /**
+     * Decodes an already validated message starting at the buffer's position by binding one of the reader's flyweight
+     * messages to the data.
+     */
+    static DreamScreenMessage decode(final ByteBuffer data, final DreamScreenMessageReader reader)
+            throws DreamScreenMessageInvalid {
+        final int off = data.position();
+        final Decoder decoder = DreamScreenMessageRegistry.lookup(data, off);
+        if (decoder == null) {
+            throw new DreamScreenMessageInvalid("Message not currently handled");
+        }
+        return reader.flyweight(decoder).wrap(data, off);
     }
 
-    protected DreamScreenMessage(final byte[] data, final int off) {
-        this.group = data[off + 2];
-        // this.flags = data[off + 3];
-        this.commandUpper = data[off + 4];
-        this.commandLower = data[off + 5];
-        this.payloadLen = (data[off + 1] & 0xFF) - 5;
-        this.payload = ByteBuffer.allocate(payloadLen);
-        this.payload.put(data, off + 6, payloadLen);
-        this.payload.rewind();
+    /**
+     * Creates a flyweight message that is bound to received data with {@link #wrap(ByteBuffer, int)}.
+     */
+    protected DreamScreenMessage() {
+        this.payload = EMPTY;
     }
 
     protected DreamScreenMessage(byte group, byte commandUpper, byte commandLower, byte[] payload) {
@@ -75,38 +69,140 @@ public abstract class DreamScreenMessage {
         this.payload = ByteBuffer.wrap(payload);
     }
 
-    public DatagramPacket readPacket(final InetAddress address, final int port) {
-        return toPacket(address, port, (byte) 0x16);
+    final DreamScreenMessage wrap(final ByteBuffer data, final int off) {
+        this.group = data.get(off + 2);
+        // this.flags = data.get(off + 3);
+        this.commandUpper = data.get(off + 4);
+        this.commandLower = data.get(off + 5);
+        this.payloadLen = (data.get(off + 1) & 0xFF) - 5;
+        this.payload = data;
+        this.payloadOff = off + 6;
+        this.off = off;
+        this.view = true;
+        return this;
+    }
+
+    /**
+     * Returns a message that owns its data. Flyweight messages are only valid until their reader decodes the next
+     * datagram, so any message retained beyond the call it was received in must be copied first. The copy is a new
+     * message backed by its own array and is never rebound by a reader.
+     */
+    public DreamScreenMessage copy() {
+        if (!this.view) {
+            return this;
+        }
+        final byte[] owned = new byte[this.payloadLen + 7];
+        for (int i = 0; i < owned.length; i++) {
+            owned[i] = this.payload.get(this.off + i);
+        }
+        final Decoder decoder = DreamScreenMessageRegistry.lookup(ByteBuffer.wrap(owned), 0);
+        if (decoder == null) {
+            throw new IllegalStateException("Flyweight message was not bound to a registered message");
+        }
+        final DreamScreenMessage copy = decoder.create().wrap(ByteBuffer.wrap(owned), 0);
+        copy.view = false;
+        return copy;
+    }
+
+    /**
+     * Returns the command upper and lower bytes combined, which identifies the type of the message.
+     */
+    public int getCommand() {
+        return (this.commandUpper & 0xFF) << 8 | (this.commandLower & 0xFF);
+    }
+
+    /**
+     * Determines if this message is the device's echo or reply to a message that was sent to it.
+     */
+    public boolean isResponseTo(final DreamScreenMessage request) {
+        return this.commandUpper == request.commandUpper && this.commandLower == request.commandLower;
+    }
+
+    /**
+     * Returns a hash of the group, command and payload, which recognizes a repeated copy of a message without having
+     * to keep the message itself.
+     */
+    public long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ (this.group & 0xFF)) * 0x100000001b3L;
+        hash = (hash ^ getCommand()) * 0x100000001b3L;
+        for (int i = 0; i < this.payloadLen; i++) {
+            hash = (hash ^ (getByte(i) & 0xFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    protected byte getByte(final int index) {
+        return this.payload.get(this.payloadOff + index);
+    }
+
+    protected int getInt(final int index) {
+        return this.payload.getInt(this.payloadOff + index);
+    }
+
+    protected String getString(final int index, final int len) {
+        final byte[] data = new byte[len];
+        for (int i = 0; i < len; i++) {
+            data[i] = this.payload.get(this.payloadOff + index + i);
+        }
+        return new String(data, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Encodes a read of this message at the buffer's position. Encoding never changes the message, so the same message
+     * can be encoded any number of times.
+     */
+    public void putRead(final ByteBuffer dst) {
+        encode(dst, FLAGS_READ);
     }
 
-    public DatagramPacket writePacket(final InetAddress address, final int port) {
-        return toPacket(address, port, (byte) 0x17);
+    public void putWrite(final ByteBuffer dst) {
+        encode(dst, writeFlags());
     }
 
-    public DatagramPacket broadcastReadPacket(final InetAddress address, final int port) {
-        return toPacket(address, port, (byte) 0x30);
+    public void putGroupWrite(final ByteBuffer dst) {
+        encode(dst, FLAGS_GROUP_WRITE);
     }
 
-    private DatagramPacket toPacket(final InetAddress address, final int port, final byte flags) {
-        byte[] data = new byte[this.payloadLen + 7];
-        data[0] = (byte) 0xFC;
-        data[1] = (byte) (this.payloadLen + 5);
-        data[2] = this.group;
-        data[3] = flags;
-        data[4] = this.commandUpper;
-        data[5] = this.commandLower;
-        this.payload.get(data, 6, this.payloadLen);
-        data[this.payloadLen + 6] = calcCRC8(data, 0);
+    public void putBroadcastRead(final ByteBuffer dst) {
+        encode(dst, FLAGS_BROADCAST_READ);
+    }
+
+    protected byte writeFlags() {
+        return FLAGS_WRITE;
+    }
+
+    private void encode(final ByteBuffer dst, final byte flags) {
+        final int off = dst.position();
+        putHeader(dst, this.payloadLen, this.group, flags, this.commandUpper, this.commandLower);
+        for (int i = 0; i < this.payloadLen; i++) {
+            dst.put(getByte(i));
+        }
+        putCRC(dst, off);
+    }
+
+    /**
+     * Writes the frame header for a message with the given payload length at the buffer's position.
+     */
+    protected static void putHeader(final ByteBuffer dst, final int payloadLen, final byte group, final byte flags,
+            final byte commandUpper, final byte commandLower) {
+        dst.put((byte) 0xFC).put((byte) (payloadLen + 5)).put(group).put(flags).put(commandUpper).put(commandLower);
+    }
 
-        return new DatagramPacket(data, this.payloadLen + 7, address, port);
+    /**
+     * Writes the CRC of the frame that starts at the given offset and whose header and payload precede the buffer's
+     * position.
+     */
+    protected static void putCRC(final ByteBuffer dst, final int off) {
+        dst.put(calcCRC8(dst, off));
     }
 
-    private static final byte calcCRC8(byte[] data, int off) {
-        int size = (data[off + 1] & 0xFF) + 1;
+    private static final byte calcCRC8(ByteBuffer data, int off) {
+        int size = (data.get(off + 1) & 0xFF) + 1;
         int cntr = 0;
         byte crc = 0x00;
         while (cntr < size) {
-            crc = CRC_TABLE[(byte) (crc ^ (data[off + cntr])) & 0xFF];
+            crc = CRC_TABLE[(byte) (crc ^ (data.get(off + cntr))) & 0xFF];
             cntr++;
         }
         return crc;
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.message;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageRegistry.Decoder;
+
+/**
+ * The {@link DreamScreenMessageReader} decodes received data into flyweight messages that are read-only views over
+ * the receive buffer. Each registered decoder has a single instance that is rebound on every read, so a reader must
+ * only be used by one thread and the returned message is only valid until the next read or until its data is
+ * reused. Use {@link DreamScreenMessage#copy()} to retain a message.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenMessageReader {
+    private @Nullable DreamScreenMessage[] flyweights = new DreamScreenMessage[DreamScreenMessageRegistry.size()];
+
+    /**
+     * Decodes the message between the buffer's position and limit without copying or allocating.
+     */
+    public DreamScreenMessage read(final ByteBuffer data) throws DreamScreenMessageInvalid {
+        DreamScreenMessage.validate(data);
+        return DreamScreenMessage.decode(data, this);
+    }
+
+    DreamScreenMessage flyweight(final Decoder decoder) {
+        if (decoder.id >= this.flyweights.length) {
+            this.flyweights = Arrays.copyOf(this.flyweights, DreamScreenMessageRegistry.size());
+        }
+        DreamScreenMessage msg = this.flyweights[decoder.id];
+        if (msg == null) {
+            msg = decoder.create();
+            this.flyweights[decoder.id] = msg;
+        }
+        return msg;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.message;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
+
+/**
+ * The {@link DreamScreenMessageRegistry} maps the command bytes of a received message to the decoder for its message
+ * type. Lookups index directly by command upper and lower byte, optionally refined by the product id in the last
+ * payload byte, so dispatch cost does not grow as more of the protocol is handled.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public final class DreamScreenMessageRegistry {
+    private static final AtomicReferenceArray<@Nullable Entry[]> COMMANDS = new AtomicReferenceArray<>(256);
+    private static int decoders = 0;
+
+    static {
+        register(SerialNumberMessage.COMMAND_UPPER, SerialNumberMessage.COMMAND_LOWER, SerialNumberMessage::new);
+        register(RefreshMessage.COMMAND_UPPER, RefreshMessage.COMMAND_LOWER, RefreshMessage::new);
+        register(RefreshMessage.COMMAND_UPPER, RefreshMessage.COMMAND_LOWER, DreamScreenHdHandler.PRODUCT_ID,
+                RefreshTvMessage::new);
+        register(RefreshMessage.COMMAND_UPPER, RefreshMessage.COMMAND_LOWER, DreamScreen4kHandler.PRODUCT_ID,
+                RefreshTvMessage::new);
+        register(ModeMessage.COMMAND_UPPER, ModeMessage.COMMAND_LOWER, ModeMessage::new);
+        register(InputMessage.COMMAND_UPPER, InputMessage.COMMAND_LOWER, InputMessage::new);
+        register(ColorMessage.COMMAND_UPPER, ColorMessage.COMMAND_LOWER, ColorMessage::new);
+        register(AmbientModeTypeMessage.COMMAND_UPPER, AmbientModeTypeMessage.COMMAND_LOWER,
+                AmbientModeTypeMessage::new);
+        register(SceneMessage.COMMAND_UPPER, SceneMessage.COMMAND_LOWER, SceneMessage::new);
+    }
+
+    private DreamScreenMessageRegistry() {
+    }
+
+    /**
+     * Registers the decoder used for every message with the given command bytes.
+     */
+    public static void register(final byte commandUpper, final byte commandLower,
+            final Supplier<? extends DreamScreenMessage> factory) {
+        update(commandUpper, commandLower, -1, factory);
+    }
+
+    /**
+     * Registers the decoder used for messages with the given command bytes that were sent by the given product.
+     */
+    public static void register(final byte commandUpper, final byte commandLower, final byte productId,
+            final Supplier<? extends DreamScreenMessage> factory) {
+        update(commandUpper, commandLower, productId & 0xFF, factory);
+    }
+
+    private static synchronized void update(final byte commandUpper, final byte commandLower, final int productId,
+            final Supplier<? extends DreamScreenMessage> factory) {
+        final Decoder decoder = new Decoder(decoders++, factory);
+        final Entry[] row = COMMANDS.get(commandUpper & 0xFF);
+        final Entry[] newRow = row == null ? new Entry[256] : row.clone();
+        final Entry entry = newRow[commandLower & 0xFF];
+        newRow[commandLower & 0xFF] = entry == null ? new Entry(null, null).with(productId, decoder)
+                : entry.with(productId, decoder);
+        COMMANDS.set(commandUpper & 0xFF, newRow);
+    }
+
+    static synchronized int size() {
+        return decoders;
+    }
+
+    static @Nullable Decoder lookup(final ByteBuffer data, final int off) {
+        final Entry[] row = COMMANDS.get(data.get(off + 4) & 0xFF);
+        if (row == null) {
+            return null;
+        }
+        final Entry entry = row[data.get(off + 5) & 0xFF];
+        if (entry == null) {
+            return null;
+        }
+        final Decoder @Nullable [] products = entry.products;
+        if (products != null) {
+            final Decoder decoder = products[data.get(off + (data.get(off + 1) & 0xFF)) & 0xFF];
+            if (decoder != null) {
+                return decoder;
+            }
+        }
+        return entry.decoder;
+    }
+
+    private static class Entry {
+        private final @Nullable Decoder decoder;
+        private final Decoder @Nullable [] products;
+
+        private Entry(final @Nullable Decoder decoder, final Decoder @Nullable [] products) {
+            this.decoder = decoder;
+            this.products = products;
+        }
+
+        private Entry with(final int productId, final Decoder decoder) {
+            if (productId < 0) {
+                return new Entry(decoder, this.products);
+            }
+            final Decoder[] products = this.products;
+            final Decoder[] newProducts = products == null ? new Decoder[256] : products.clone();
+            newProducts[productId] = decoder;
+            return new Entry(this.decoder, newProducts);
+        }
+    }
+
+    static class Decoder {
+        final int id;
+        private final Supplier<? extends DreamScreenMessage> factory;
+
+        private Decoder(final int id, final Supplier<? extends DreamScreenMessage> factory) {
+            this.id = id;
+            this.factory = factory;
+        }
+
+        DreamScreenMessage create() {
+            return this.factory.get();
+        }
+    }
+}
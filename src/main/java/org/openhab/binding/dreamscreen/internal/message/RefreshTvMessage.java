@@ -1,25 +1,13 @@
 package org.openhab.binding.dreamscreen.internal.message;
 
-import java.nio.charset.StandardCharsets;
-
 import org.eclipse.jdt.annotation.NonNullByDefault;
-import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
-import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
 
 @NonNullByDefault
 public class RefreshTvMessage extends RefreshMessage {
+    private static final int INPUT_NAMES_OFFSET = 75;
+    private static final int INPUT_NAMES_LENGTH = 48;
 
-    protected RefreshTvMessage(final byte[] data, final int off) {
-        super(data, off);
-    }
-
-    static boolean matches(final byte[] data, final int off) {
-        if (RefreshMessage.matches(data, off)) {
-            final int msgLen = data[off + 1] & 0xFF;
-            final byte productId = data[off + msgLen];
-            return productId == DreamScreenHdHandler.PRODUCT_ID || productId == DreamScreen4kHandler.PRODUCT_ID;
-        }
-        return false;
+    RefreshTvMessage() {
     }
 
     @Override
@@ -28,18 +16,44 @@ public class RefreshTvMessage extends RefreshMessage {
     }
 
     public byte getInput() {
-        return this.payload.get(73);
+        return getByte(73);
     }
 
     public String getInputName1() {
-        return new String(this.payload.array(), 75, 16, StandardCharsets.UTF_8).trim();
+        return getString(75, 16);
     }
 
     public String getInputName2() {
-        return new String(this.payload.array(), 91, 16, StandardCharsets.UTF_8).trim();
+        return getString(91, 16);
     }
 
     public String getInputName3() {
-        return new String(this.payload.array(), 107, 16, StandardCharsets.UTF_8).trim();
+        return getString(107, 16);
+    }
+
+    /**
+     * Returns true if the raw bytes of all three input names are the given bytes.
+     */
+    public boolean hasInputNames(final byte[] names) {
+        if (names.length != INPUT_NAMES_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < INPUT_NAMES_LENGTH; i++) {
+            if (getByte(INPUT_NAMES_OFFSET + i) != names[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a copy of the raw bytes of all three input names.
+     */
+    public byte[] getInputNames() {
+        final byte[] names = new byte[INPUT_NAMES_LENGTH];
+        for (int i = 0; i < INPUT_NAMES_LENGTH; i++) {
+            names[i] = getByte(INPUT_NAMES_OFFSET + i);
+        }
+        return names;
     }
 }
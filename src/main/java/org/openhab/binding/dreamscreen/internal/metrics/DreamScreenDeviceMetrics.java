@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link DreamScreenDeviceMetrics} class holds the traffic counters of a single DreamScreen device.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenDeviceMetrics {
+    public final LongAdder packetsReceived = new LongAdder();
+    public final LongAdder packetsSent = new LongAdder();
+    public final LongAdder retransmits = new LongAdder();
+    public final LongAdder writesFailed = new LongAdder();
+    public final LongAdder duplicatesDropped = new LongAdder();
+    public final DreamScreenHistogram responseLatency = new DreamScreenHistogram();
+    private final IntSupplier writesDepth;
+    private final IntSupplier readsDepth;
+
+    public DreamScreenDeviceMetrics(final IntSupplier writesDepth, final IntSupplier readsDepth) {
+        this.writesDepth = writesDepth;
+        this.readsDepth = readsDepth;
+    }
+
+    public int getWritesDepth() {
+        return this.writesDepth.getAsInt();
+    }
+
+    public int getReadsDepth() {
+        return this.readsDepth.getAsInt();
+    }
+}
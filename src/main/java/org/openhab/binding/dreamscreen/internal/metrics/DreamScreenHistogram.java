@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link DreamScreenHistogram} counts durations in fixed buckets from 1 ms to 5 s. Recording never allocates or
+ * locks, so it can be used on the receive and send paths.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenHistogram {
+    private static final long[] BOUNDS_MILLIS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+    private static final String[] BOUNDS_SECONDS = { "0.001", "0.002", "0.005", "0.01", "0.02", "0.05", "0.1", "0.2",
+            "0.5", "1", "2", "5" };
+
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_MILLIS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            BOUNDS_NANOS[i] = TimeUnit.MILLISECONDS.toNanos(BOUNDS_MILLIS[i]);
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_MILLIS.length + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(final long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        this.buckets.incrementAndGet(bucket);
+        this.sumNanos.add(nanos);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < this.buckets.length(); i++) {
+            count += this.buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Estimates a quantile as the upper bound of the bucket it falls in, or -1 if nothing was recorded.
+     */
+    public long quantileMillis(final double quantile) {
+        final long count = count();
+        if (count == 0) {
+            return -1;
+        }
+        final long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += this.buckets.get(i);
+            if (seen >= rank) {
+                return BOUNDS_MILLIS[i];
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Writes the histogram in the Prometheus text format. The labels, if any, must end with a comma.
+     */
+    void write(final PrintWriter out, final String name, final String labels) {
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            cumulative += this.buckets.get(i);
+            out.printf(Locale.ROOT, "%s_bucket{%sle=\"%s\"} %d%n", name, labels, BOUNDS_SECONDS[i], cumulative);
+        }
+        cumulative += this.buckets.get(BOUNDS_SECONDS.length);
+        out.printf(Locale.ROOT, "%s_bucket{%sle=\"+Inf\"} %d%n", name, labels, cumulative);
+        final String sumLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.printf(Locale.ROOT, "%s_sum%s %f%n", name, sumLabels, this.sumNanos.sum() / 1e9);
+        out.printf(Locale.ROOT, "%s_count%s %d%n", name, sumLabels, cumulative);
+    }
+}
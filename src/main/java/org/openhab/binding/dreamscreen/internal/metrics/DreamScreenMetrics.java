@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link DreamScreenMetrics} class holds the server-wide counters of the binding and writes them, together with
+ * the counters of each device, in the Prometheus text format.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenMetrics {
+    public final LongAdder packetsReceived = new LongAdder();
+    public final LongAdder packetsSent = new LongAdder();
+    public final LongAdder packetsDropped = new LongAdder();
+    public final DreamScreenHistogram scanDuration = new DreamScreenHistogram();
+    private final Map<String, LongAdder> decodeFailures = new ConcurrentHashMap<>();
+    private final IntSupplier receiveQueueDepth;
+
+    public DreamScreenMetrics(final IntSupplier receiveQueueDepth) {
+        this.receiveQueueDepth = receiveQueueDepth;
+    }
+
+    public void decodeFailed(final String reason) {
+        LongAdder failures = this.decodeFailures.get(reason);
+        if (failures == null) {
+            failures = this.decodeFailures.computeIfAbsent(reason, r -> new LongAdder());
+        }
+        failures.increment();
+    }
+
+    public void write(final PrintWriter out, final Map<Integer, DreamScreenDeviceMetrics> devices) {
+        out.println("# TYPE dreamscreen_packets_received_total counter");
+        out.printf(Locale.ROOT, "dreamscreen_packets_received_total %d%n", this.packetsReceived.sum());
+        out.println("# TYPE dreamscreen_packets_sent_total counter");
+        out.printf(Locale.ROOT, "dreamscreen_packets_sent_total %d%n", this.packetsSent.sum());
+        out.println("# TYPE dreamscreen_packets_dropped_total counter");
+        out.printf(Locale.ROOT, "dreamscreen_packets_dropped_total %d%n", this.packetsDropped.sum());
+        out.println("# TYPE dreamscreen_receive_queue_depth gauge");
+        out.printf(Locale.ROOT, "dreamscreen_receive_queue_depth %d%n", this.receiveQueueDepth.getAsInt());
+        out.println("# TYPE dreamscreen_decode_failures_total counter");
+        for (final Entry<String, LongAdder> failures : this.decodeFailures.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_decode_failures_total{reason=\"%s\"} %d%n", failures.getKey(),
+                    failures.getValue().sum());
+        }
+        out.println("# TYPE dreamscreen_scan_duration_seconds histogram");
+        this.scanDuration.write(out, "dreamscreen_scan_duration_seconds", "");
+
+        out.println("# TYPE dreamscreen_device_packets_received_total counter");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_packets_received_total{serial=\"%d\"} %d%n", device.getKey(),
+                    device.getValue().packetsReceived.sum());
+        }
+        out.println("# TYPE dreamscreen_device_packets_sent_total counter");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_packets_sent_total{serial=\"%d\"} %d%n", device.getKey(),
+                    device.getValue().packetsSent.sum());
+        }
+        out.println("# TYPE dreamscreen_device_retransmits_total counter");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_retransmits_total{serial=\"%d\"} %d%n", device.getKey(),
+                    device.getValue().retransmits.sum());
+        }
+        out.println("# TYPE dreamscreen_device_writes_failed_total counter");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_writes_failed_total{serial=\"%d\"} %d%n", device.getKey(),
+                    device.getValue().writesFailed.sum());
+        }
+        out.println("# TYPE dreamscreen_device_duplicates_dropped_total counter");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_duplicates_dropped_total{serial=\"%d\"} %d%n",
+                    device.getKey(), device.getValue().duplicatesDropped.sum());
+        }
+        out.println("# TYPE dreamscreen_device_queue_depth gauge");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            out.printf(Locale.ROOT, "dreamscreen_device_queue_depth{serial=\"%d\",queue=\"writes\"} %d%n",
+                    device.getKey(), device.getValue().getWritesDepth());
+            out.printf(Locale.ROOT, "dreamscreen_device_queue_depth{serial=\"%d\",queue=\"reads\"} %d%n",
+                    device.getKey(), device.getValue().getReadsDepth());
+        }
+        out.println("# TYPE dreamscreen_device_response_latency_seconds histogram");
+        for (final Entry<Integer, DreamScreenDeviceMetrics> device : devices.entrySet()) {
+            device.getValue().responseLatency.write(out, "dreamscreen_device_response_latency_seconds",
+                    "serial=\"" + device.getKey() + "\",");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.dreamscreen.internal.DreamScreenServer;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.http.HttpService;
+import org.osgi.service.http.NamespaceException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link DreamScreenMetricsServlet} serves the binding's metrics at {@value #PATH} in the Prometheus text format.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+@Component(immediate = true)
+public class DreamScreenMetricsServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final String PATH = "/dreamscreen/metrics";
+
+    private final Logger logger = LoggerFactory.getLogger(DreamScreenMetricsServlet.class);
+    private @Nullable HttpService httpService;
+    private @Nullable DreamScreenServer server;
+
+    @Reference
+    public void setHttpService(final HttpService httpService) {
+        this.httpService = httpService;
+    }
+
+    public void unsetHttpService(final HttpService httpService) {
+        this.httpService = null;
+    }
+
+    @Reference
+    public void setDreamScreenServer(final DreamScreenServer server) {
+        this.server = server;
+    }
+
+    public void unsetDreamScreenServer(final DreamScreenServer server) {
+        this.server = null;
+    }
+
+    @Activate
+    protected void activate() {
+        final HttpService httpService = this.httpService;
+        if (httpService != null) {
+            try {
+                httpService.registerServlet(PATH, this, null, null);
+            } catch (ServletException | NamespaceException e) {
+                logger.error("Unable to register DreamScreen metrics at {}", PATH, e);
+            }
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        final HttpService httpService = this.httpService;
+        if (httpService != null) {
+            httpService.unregister(PATH);
+        }
+    }
+
+    @Override
+    protected void doGet(final @Nullable HttpServletRequest req, final @Nullable HttpServletResponse resp)
+            throws ServletException, IOException {
+        final DreamScreenServer server = this.server;
+        if (resp != null && server != null) {
+            resp.setContentType("text/plain; version=0.0.4");
+            resp.setCharacterEncoding("UTF-8");
+            final PrintWriter out = resp.getWriter();
+            server.writeMetrics(out);
+            out.flush();
+        }
+    }
+}
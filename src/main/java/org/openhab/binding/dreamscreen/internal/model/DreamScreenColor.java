@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+
+/**
+ * The {@link DreamScreenColor} class converts between {@link HSBType} and the packed 8-bit RGB bytes sent to and
+ * received from a device, remembering the last conversion in each direction.
+ *
+ * Colors with whole number hue, saturation and brightness, which is what UIs send, are converted with long arithmetic
+ * that reproduces {@link HSBType#toRGB()} followed by scaling each percentage to 0-255 rounded half up to two decimals.
+ * Any other color takes the {@link BigDecimal} path.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenColor {
+    private static final long FRACTION_ONE = 10_000_000_000L; // HSBType works to 10 decimals
+    private static final long SCALE = 100 * FRACTION_ONE;
+    private static final BigDecimal BYTE_MAX = BigDecimal.valueOf(255);
+    private static final BigDecimal PERCENT = BigDecimal.valueOf(100);
+
+    private volatile @Nullable ToRGB lastToRGB;
+    private volatile @Nullable FromRGB lastFromRGB;
+
+    /**
+     * Returns the color's red, green and blue bytes packed into the low 24 bits of an int.
+     */
+    public int toRGB(final HSBType color) {
+        final ToRGB last = this.lastToRGB;
+        if (last != null && (last.color == color || last.color.equals(color))) {
+            return last.rgb;
+        }
+        final int rgb = convert(color);
+        this.lastToRGB = new ToRGB(color, rgb);
+        return rgb;
+    }
+
+    /**
+     * Returns the color of packed red, green and blue bytes.
+     */
+    public HSBType fromRGB(final int rgb) {
+        final FromRGB last = this.lastFromRGB;
+        if (last != null && last.rgb == rgb) {
+            return last.color;
+        }
+        final HSBType color = HSBType.fromRGB(rgb >> 16 & 0xFF, rgb >> 8 & 0xFF, rgb & 0xFF);
+        this.lastFromRGB = new FromRGB(rgb, color);
+        return color;
+    }
+
+    static int convert(final HSBType color) {
+        final int hue = wholeNumber(color.getHue().toBigDecimal());
+        final int saturation = wholeNumber(color.getSaturation().toBigDecimal());
+        final int brightness = wholeNumber(color.getBrightness().toBigDecimal());
+        if (hue < 0 || hue > 360 || saturation < 0 || saturation > 100 || brightness < 0 || brightness > 100) {
+            final PercentType[] rgb = color.toRGB();
+            return (colorByte(rgb[0]) & 0xFF) << 16 | (colorByte(rgb[1]) & 0xFF) << 8 | (colorByte(rgb[2]) & 0xFF);
+        }
+
+        // HSBType rounds hue / 60 half up to 10 decimals; the sector never carries since the fraction is <= 59/60
+        final int sector = hue / 60 % 6;
+        final long f = ((hue % 60) * FRACTION_ONE * 2 + 60) / 120;
+        final int v = channel(brightness, saturation, 0);
+        final int a = channel(brightness, saturation, FRACTION_ONE);
+        final int b = channel(brightness, saturation, f);
+        final int c = channel(brightness, saturation, FRACTION_ONE - f);
+        switch (sector) {
+            case 0:
+                return v << 16 | c << 8 | a;
+            case 1:
+                return b << 16 | v << 8 | a;
+            case 2:
+                return a << 16 | v << 8 | c;
+            case 3:
+                return a << 16 | b << 8 | v;
+            case 4:
+                return c << 16 | a << 8 | v;
+            default:
+                return v << 16 | a << 8 | b;
+        }
+    }
+
+    /**
+     * Computes brightness * (1 - saturation * fraction) as a byte, where the percentage is scaled by 255 / 100 and
+     * rounded half up to hundredths before the fraction is dropped.
+     */
+    private static int channel(final int brightness, final int saturation, final long fraction) {
+        final long scaled = brightness * (SCALE - saturation * fraction) * 255;
+        final long hundredths = (scaled * 2 + SCALE) / (SCALE * 2);
+        return (int) (hundredths / 100) & 0xFF;
+    }
+
+    /**
+     * Scales a percentage to a byte, the way the binding has always done it.
+     */
+    static byte colorByte(final PercentType percent) {
+        return percent.toBigDecimal().multiply(BYTE_MAX).divide(PERCENT, 2, RoundingMode.HALF_UP).byteValue();
+    }
+
+    private static int wholeNumber(final BigDecimal value) {
+        if (value.scale() <= 0 || value.stripTrailingZeros().scale() <= 0) {
+            return value.intValue();
+        }
+        return -1;
+    }
+
+    private static final class ToRGB {
+        final HSBType color;
+        final int rgb;
+
+        ToRGB(final HSBType color, final int rgb) {
+            this.color = color;
+            this.rgb = rgb;
+        }
+    }
+
+    private static final class FromRGB {
+        final int rgb;
+        final HSBType color;
+
+        FromRGB(final int rgb, final HSBType color) {
+            this.rgb = rgb;
+            this.color = color;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.binding.dreamscreen.internal.model;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 
 public enum DreamScreenMode {
@@ -19,21 +20,28 @@ public enum DreamScreenMode {
     MUSIC(2),
     AMBIENT(3);
 
+    private static final DreamScreenMode[] VALUES = values();
+
     public final byte deviceMode;
+    private final DecimalType state = new DecimalType(ordinal());
 
     private DreamScreenMode(int deviceMode) {
         this.deviceMode = (byte) deviceMode;
     }
 
-    public static DreamScreenMode fromDevice(byte value) {
-        return value > 0 ? DreamScreenMode.values()[value - 1] : null;
+    /**
+     * Returns the mode the device reports, or null when it is off or reports a mode this binding does not know.
+     */
+    public static @Nullable DreamScreenMode fromDevice(byte value) {
+        return value > 0 && value <= VALUES.length ? VALUES[value - 1] : null;
     }
 
-    public static DreamScreenMode fromState(DecimalType command) {
-        return DreamScreenMode.values()[command.intValue()];
+    public static @Nullable DreamScreenMode fromState(DecimalType command) {
+        final int ordinal = command.intValue();
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
     }
 
     public DecimalType state() {
-        return new DecimalType(this.ordinal());
+        return this.state;
     }
 }
\ No newline at end of file
@@ -12,6 +12,7 @@
  */
 package org.openhab.binding.dreamscreen.internal.model;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 
 public enum DreamScreenScene {
@@ -26,31 +27,35 @@ public enum DreamScreenScene {
     POP(1, 7),
     ENCHANTED_FOREST(1, 8);
 
+    private static final DreamScreenScene[] VALUES = values();
+
     public final byte ambientModeType;
     public final byte ambientScene;
+    private final DecimalType state = new DecimalType(ordinal());
 
     private DreamScreenScene(int ambientModeType, int ambientScene) {
         this.ambientModeType = (byte) ambientModeType;
         this.ambientScene = (byte) ambientScene;
     }
 
-    public static DreamScreenScene fromDevice(byte ambientModeType, byte ambientScene) {
-        return DreamScreenScene.values()[ambientModeType == 0 ? 0 : ambientScene + 1];
-    }
-
-    public static DreamScreenScene fromDeviceScene(byte ambientScene) {
-        return DreamScreenScene.values()[ambientScene + 1];
+    /**
+     * Returns the scene the device reports, or null when it reports a scene this binding does not know.
+     */
+    public static @Nullable DreamScreenScene fromDevice(byte ambientModeType, byte ambientScene) {
+        return ambientModeType == 0 ? COLOR : fromDeviceScene(ambientScene);
     }
 
-    static DreamScreenScene fromScene(byte ambientScene) {
-        return DreamScreenScene.values()[ambientScene + 1];
+    public static @Nullable DreamScreenScene fromDeviceScene(byte ambientScene) {
+        final int ordinal = ambientScene + 1;
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
     }
 
-    public static DreamScreenScene fromState(DecimalType state) {
-        return DreamScreenScene.values()[state.intValue()];
+    public static @Nullable DreamScreenScene fromState(DecimalType state) {
+        final int ordinal = state.intValue();
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
     }
 
     public DecimalType state() {
-        return new DecimalType(this.ordinal());
+        return this.state;
     }
 }
\ No newline at end of file
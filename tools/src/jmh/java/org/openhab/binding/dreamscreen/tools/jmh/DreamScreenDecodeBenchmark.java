@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools.jmh;
+
+import static org.openhab.binding.dreamscreen.tools.DreamScreenFrames.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessage;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageInvalid;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link DreamScreenDecodeBenchmark} measures decoding every message type a device sends, from a read-only view
+ * over a byte array like the server's receive slots, including validation of the length and CRC.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DreamScreenDecodeBenchmark {
+    @Param({ "serialNumber", "refreshSidekick", "refreshHd", "refresh4k", "mode", "color", "scene", "ambientModeType",
+            "input" })
+    public String message = "mode";
+
+    private final byte[] datagram = new byte[256];
+    private ByteBuffer view = ByteBuffer.wrap(this.datagram);
+    private final DreamScreenMessageReader reader = new DreamScreenMessageReader();
+
+    @Setup
+    public void setup() {
+        final ByteBuffer frame = ByteBuffer.wrap(this.datagram);
+        putReply(frame, this.message);
+        this.view = ByteBuffer.wrap(this.datagram, 0, frame.position()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the frame a device sends for the named message.
+     */
+    static void putReply(final ByteBuffer dst, final String message) {
+        final byte group = 1;
+        switch (message) {
+            case "serialNumber":
+                putSerialNumber(dst, group, 0x12345678);
+                break;
+            case "refreshSidekick":
+                putFrame(dst, group, FLAGS_REPLY, REFRESH,
+                        refreshPayload(DreamScreenSidekickHandler.PRODUCT_ID, "Sidekick", group));
+                break;
+            case "refreshHd":
+                putFrame(dst, group, FLAGS_REPLY, REFRESH,
+                        refreshPayload(DreamScreenHdHandler.PRODUCT_ID, "DreamScreen HD", group));
+                break;
+            case "refresh4k":
+                putFrame(dst, group, FLAGS_REPLY, REFRESH,
+                        refreshPayload(DreamScreen4kHandler.PRODUCT_ID, "DreamScreen 4K", group));
+                break;
+            case "mode":
+                putFrame(dst, group, FLAGS_REPLY, MODE, (byte) 1);
+                break;
+            case "color":
+                putFrame(dst, group, FLAGS_REPLY, COLOR, (byte) 0x20, (byte) 0x40, (byte) 0x80);
+                break;
+            case "scene":
+                putFrame(dst, group, FLAGS_REPLY, SCENE, (byte) 4);
+                break;
+            case "ambientModeType":
+                putFrame(dst, group, FLAGS_REPLY, AMBIENT_MODE_TYPE, (byte) 1);
+                break;
+            case "input":
+                putFrame(dst, group, FLAGS_REPLY, INPUT, (byte) 2);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown message " + message);
+        }
+    }
+
+    @Benchmark
+    public DreamScreenMessage decode() throws DreamScreenMessageInvalid {
+        this.view.position(0);
+        return this.reader.read(this.view);
+    }
+
+    @Benchmark
+    public DreamScreenMessage decodeAndCopy() throws DreamScreenMessageInvalid {
+        this.view.position(0);
+        return this.reader.read(this.view).copy();
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.dreamscreen.internal.message.ColorMessage;
+import org.openhab.binding.dreamscreen.internal.message.ModeMessage;
+import org.openhab.binding.dreamscreen.internal.message.RefreshMessage;
+import org.openhab.binding.dreamscreen.internal.message.ScanMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link DreamScreenEncodeBenchmark} measures encoding the messages the binding sends, including the CRC, into a
+ * direct buffer like the server's send buffers.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DreamScreenEncodeBenchmark {
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+    private final ColorMessage color = new ColorMessage((byte) 1, (byte) 0x20, (byte) 0x40, (byte) 0x80);
+    private final ModeMessage mode = new ModeMessage((byte) 1, (byte) 1);
+    private final ScanMessage scan = new ScanMessage();
+    private final RefreshMessage refresh = new RefreshMessage();
+
+    @Benchmark
+    public ByteBuffer colorWrite() {
+        this.buffer.clear();
+        this.color.putWrite(this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer colorGroupWrite() {
+        this.buffer.clear();
+        this.color.putGroupWrite(this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer colorStreamFrame() {
+        this.buffer.clear();
+        ColorMessage.putFrame(this.buffer, (byte) 1, (byte) 0x20, (byte) 0x40, (byte) 0x80);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer modeRead() {
+        this.buffer.clear();
+        this.mode.putRead(this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer scanBroadcast() {
+        this.buffer.clear();
+        this.scan.putBroadcastRead(this.buffer);
+        return this.buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer refreshBroadcast() {
+        this.buffer.clear();
+        this.refresh.putBroadcastRead(this.buffer);
+        return this.buffer;
+    }
+}
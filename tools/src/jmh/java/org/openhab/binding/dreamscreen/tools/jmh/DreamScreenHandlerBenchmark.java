@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools.jmh;
+
+import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.THING_TYPE_4K;
+import static org.openhab.binding.dreamscreen.tools.DreamScreenFrames.*;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.openhab.binding.dreamscreen.internal.DreamScreenConfiguration;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenInputDescriptionProvider;
+import org.openhab.binding.dreamscreen.internal.message.ColorMessage;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageInvalid;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageReader;
+import org.openhab.binding.dreamscreen.tools.DreamScreenCallbacks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link DreamScreenHandlerBenchmark} measures a 4K handler processing received datagrams, from decoding through
+ * its dedupe check and message dispatch to publishing channel states, and building the message for a color command.
+ * The handler is not linked to a server, so any message it would send in response stays queued.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DreamScreenHandlerBenchmark {
+    private static final HSBType BLUE = new HSBType(new DecimalType(240), PercentType.HUNDRED, PercentType.HUNDRED);
+    private static final HSBType ORANGE = new HSBType(new DecimalType(30), PercentType.HUNDRED, PercentType.HUNDRED);
+
+    private final InetAddress address = InetAddress.getLoopbackAddress();
+    private final DreamScreenMessageReader reader = new DreamScreenMessageReader();
+    private final DreamScreenInputDescriptionProvider descriptionProvider = new DreamScreenInputDescriptionProvider();
+    private final Thing thing = ThingBuilder.create(THING_TYPE_4K, "benchmark")
+            .withConfiguration(new Configuration(
+                    Collections.singletonMap(DreamScreenConfiguration.SERIAL_NUMBER, (Object) "1")))
+            .build();
+    private final BenchmarkHandler handler = new BenchmarkHandler(this.thing, this.descriptionProvider);
+    private final ByteBuffer refresh = frame(REFRESH,
+            refreshPayload(DreamScreen4kHandler.PRODUCT_ID, "DreamScreen 4K", (byte) 1));
+    private final ByteBuffer color1 = frame(COLOR, (byte) 0x20, (byte) 0x40, (byte) 0x80);
+    private final ByteBuffer color2 = frame(COLOR, (byte) 0x80, (byte) 0x40, (byte) 0x20);
+    private final ByteBuffer mode = frame(MODE, (byte) 1);
+    private final ByteBuffer ambientModeType = frame(AMBIENT_MODE_TYPE, (byte) 1);
+    private boolean alternate;
+
+    private static ByteBuffer frame(final int command, final byte... payload) {
+        final ByteBuffer frame = ByteBuffer.allocate(256);
+        putFrame(frame, (byte) 1, FLAGS_REPLY, command, payload);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    @Setup
+    public void setup() throws DreamScreenMessageInvalid {
+        this.descriptionProvider.addThing(this.thing.getUID());
+        this.handler.setCallback(DreamScreenCallbacks.create((channel, state) -> {
+        }));
+        this.handler.initialize();
+        receive(this.refresh);
+        // answer the ambient mode type read the first refresh asks for, so the scene is published like a device's
+        // would be
+        receive(this.ambientModeType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.handler.dispose();
+    }
+
+    private boolean receive(final ByteBuffer frame) throws DreamScreenMessageInvalid {
+        frame.position(0);
+        return this.handler.message(this.reader.read(frame), this.address);
+    }
+
+    /**
+     * A poll reply that finds the device unchanged, the most common message at fleet scale.
+     */
+    @Benchmark
+    public boolean unchangedRefresh() throws DreamScreenMessageInvalid {
+        return receive(this.refresh);
+    }
+
+    /**
+     * An echo that changes nothing, like the echo of a command whose state was already published.
+     */
+    @Benchmark
+    public boolean unchangedMode() throws DreamScreenMessageInvalid {
+        return receive(this.mode);
+    }
+
+    /**
+     * Colors that change on every message, so each one is converted and published.
+     */
+    @Benchmark
+    public boolean changingColor() throws DreamScreenMessageInvalid {
+        this.alternate = !this.alternate;
+        return receive(this.alternate ? this.color1 : this.color2);
+    }
+
+    @Benchmark
+    public ColorMessage unchangedColorCommand() {
+        return this.handler.colorMessage(BLUE);
+    }
+
+    @Benchmark
+    public ColorMessage changingColorCommand() {
+        this.alternate = !this.alternate;
+        return this.handler.colorMessage(this.alternate ? BLUE : ORANGE);
+    }
+
+    /**
+     * Exposes the color command's message builder.
+     */
+    private static final class BenchmarkHandler extends DreamScreen4kHandler {
+        BenchmarkHandler(final Thing thing, final DreamScreenInputDescriptionProvider descriptionProvider) {
+            super(thing, descriptionProvider);
+        }
+
+        ColorMessage colorMessage(final HSBType color) {
+            return buildColorMsg(color);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageInvalid;
+import org.openhab.binding.dreamscreen.internal.message.DreamScreenMessageReader;
+import org.openhab.binding.dreamscreen.internal.message.RefreshTvMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The {@link DreamScreenRefreshTvBenchmark} measures reading the input names out of a TV's refresh: decoding them to
+ * strings as a changed description needs, and comparing their raw bytes as every unchanged poll reply does.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DreamScreenRefreshTvBenchmark {
+    private final RefreshTvMessage refresh = receive();
+    private final byte[] names = this.refresh.getInputNames();
+
+    /**
+     * Decodes a 4K refresh. The reader is never used again, so the flyweight stays bound to this frame.
+     */
+    private static RefreshTvMessage receive() {
+        final ByteBuffer frame = ByteBuffer.allocate(256);
+        DreamScreenDecodeBenchmark.putReply(frame, "refresh4k");
+        frame.flip();
+        try {
+            return (RefreshTvMessage) new DreamScreenMessageReader().read(frame);
+        } catch (DreamScreenMessageInvalid e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public void inputNames(final Blackhole blackhole) {
+        blackhole.consume(this.refresh.getInputName1());
+        blackhole.consume(this.refresh.getInputName2());
+        blackhole.consume(this.refresh.getInputName3());
+    }
+
+    @Benchmark
+    public byte[] rawInputNames() {
+        return this.refresh.getInputNames();
+    }
+
+    @Benchmark
+    public boolean unchangedInputNames() {
+        return this.refresh.hasInputNames(this.names);
+    }
+}
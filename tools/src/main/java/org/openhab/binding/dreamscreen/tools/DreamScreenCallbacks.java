@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools;
+
+import java.lang.reflect.Proxy;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
+import org.eclipse.smarthome.core.thing.binding.ThingHandlerCallback;
+import org.eclipse.smarthome.core.types.State;
+
+/**
+ * The {@link DreamScreenCallbacks} creates the callback a handler reports to in place of the framework's thing
+ * manager. Status updates are applied to the thing, and channel states are passed on. The callback is a proxy, so it
+ * keeps working as the callback interface grows, at the price of an argument array for every call.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public final class DreamScreenCallbacks {
+    private DreamScreenCallbacks() {
+    }
+
+    public static ThingHandlerCallback create(final BiConsumer<ChannelUID, State> states) {
+        return (ThingHandlerCallback) Proxy.newProxyInstance(ThingHandlerCallback.class.getClassLoader(),
+                new Class<?>[] { ThingHandlerCallback.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "stateUpdated":
+                            states.accept((ChannelUID) args[0], (State) args[1]);
+                            return null;
+                        case "statusUpdated":
+                            ((Thing) args[0]).setStatusInfo((ThingStatusInfo) args[1]);
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "DreamScreenCallback";
+                        default:
+                            return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools;
+
+import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.CHANNEL_COLOR;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.discovery.DiscoveryListener;
+import org.eclipse.smarthome.config.discovery.DiscoveryResult;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.dreamscreen.internal.DreamScreenServer;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenBaseHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenInputDescriptionProvider;
+import org.openhab.binding.dreamscreen.internal.metrics.DreamScreenMetrics;
+
+/**
+ * The {@link DreamScreenFleetBenchmark} runs the server and a handler per device against fleets of simulated devices
+ * on the loopback network, to find where the binding stops scaling. For each fleet size it reports:
+ * <ul>
+ * <li>how long a discovery scan takes until the last device is in the inbox, and how many made it,</li>
+ * <li>how long it takes until every handler is online,</li>
+ * <li>the p50 and p99 round trip of a color command, from the command to the published echo, while every device is
+ * sent a command at once, round after round,</li>
+ * <li>the packets per second the server thread receives and hands on while those rounds are sustained, and how many
+ * the receive queue dropped,</li>
+ * <li>the bytes the server and worker threads allocate per received packet over the same period. The worker's
+ * figure includes the stand-in framework callback the states are published to,</li>
+ * <li>on Linux, how many datagrams the kernel dropped over the whole run because a socket's receive buffer was
+ * full, which on the loopback network are all datagrams to the server.</li>
+ * </ul>
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenFleetBenchmark {
+    private static final int[] DEFAULT_FLEET_SIZES = { 10, 100, 1000 };
+    private static final int DEFAULT_SOAK_SECONDS = 10;
+    private static final long DISCOVERY_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(11);
+    private static final long ONLINE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long ROUND_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    private static final HSBType[] COLORS = {
+            new HSBType(new DecimalType(0), PercentType.HUNDRED, PercentType.HUNDRED),
+            new HSBType(new DecimalType(240), PercentType.HUNDRED, PercentType.HUNDRED) };
+
+    private final int size;
+    private final long soakNanos;
+    private final List<DreamScreenBaseHandler> handlers = new ArrayList<>();
+    private final Map<ChannelUID, Integer> colorChannels = new HashMap<>();
+    private final AtomicLongArray echoed;
+    private final long[] sent;
+    private volatile @Nullable CountDownLatch echoes;
+    private long[] latencies = new long[1024];
+    private int latencyCount;
+    private int lost;
+
+    private DreamScreenFleetBenchmark(final int size, final int soakSeconds) {
+        this.size = size;
+        this.soakNanos = TimeUnit.SECONDS.toNanos(soakSeconds);
+        this.echoed = new AtomicLongArray(size);
+        this.sent = new long[size];
+    }
+
+    /**
+     * Runs the benchmark for each fleet size given, 10, 100 and 1000 devices by default. The option {@code -s}
+     * changes how many seconds commands are sustained for, 10 by default.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        int soakSeconds = DEFAULT_SOAK_SECONDS;
+        final List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-s".equals(args[i]) && i + 1 < args.length) {
+                soakSeconds = Integer.parseInt(args[++i]);
+            } else {
+                sizes.add(Integer.parseInt(args[i]));
+            }
+        }
+        if (sizes.isEmpty()) {
+            Arrays.stream(DEFAULT_FLEET_SIZES).forEach(sizes::add);
+        }
+
+        final List<String> rows = new ArrayList<>();
+        for (final int size : sizes) {
+            rows.add(new DreamScreenFleetBenchmark(size, soakSeconds).run());
+        }
+        System.out.println();
+        System.out.println("devices  discovered  discovery ms  online ms  p50 ms  p99 ms  lost  retransmits"
+                + "  packets/s  dropped  B/packet server  B/packet worker  rcvbuf drops");
+        rows.forEach(System.out::println);
+    }
+
+    private String run() throws IOException, InterruptedException {
+        final long kernelDropsBefore = kernelDrops();
+        final Path userData = Files.createTempDirectory("dreamscreen-fleet");
+        System.setProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT, userData.toString());
+        final DreamScreenServer server = new DreamScreenServer();
+        try (DreamScreenSimulator simulator = new DreamScreenSimulator(
+                InetAddress.getByName(DreamScreenLoopback.HUB_ADDRESS))) {
+            simulator.addFleet(this.size, 1000);
+            simulator.start();
+            server.bindNetworkAddressService(DreamScreenLoopback.network());
+
+            final Map<ThingUID, DiscoveryResult> discovered = new ConcurrentHashMap<>();
+            final long discoveryMillis = discover(server, discovered);
+            final long onlineMillis = connect(server, simulator);
+            final int online = online().size();
+
+            // switches every device to the ambient color mode, so the measured commands only write the color
+            round(COLORS[0]);
+            this.latencyCount = 0;
+            this.lost = 0;
+
+            final DreamScreenMetrics metrics = server.getMetrics();
+            final long receivedBefore = metrics.packetsReceived.sum();
+            final long droppedBefore = metrics.packetsDropped.sum();
+            final long retransmitsBefore = retransmits();
+            final long serverBefore = allocatedBytes("dreamscreen-tv");
+            final long workerBefore = allocatedBytes("dreamscreen-worker");
+            final long started = System.nanoTime();
+            for (int round = 1; System.nanoTime() - started < this.soakNanos; round++) {
+                round(COLORS[round % COLORS.length]);
+            }
+            final double seconds = (System.nanoTime() - started) / 1e9;
+            final long received = metrics.packetsReceived.sum() - receivedBefore;
+            final long serverAllocated = allocatedBytes("dreamscreen-tv") - serverBefore;
+            final long workerAllocated = allocatedBytes("dreamscreen-worker") - workerBefore;
+
+            final long[] sorted = Arrays.copyOf(this.latencies, this.latencyCount);
+            Arrays.sort(sorted);
+            final long kernelDrops = kernelDropsBefore < 0 ? -1 : kernelDrops() - kernelDropsBefore;
+            return String.format(Locale.ROOT,
+                    "%7d  %10s  %12d  %9d  %6.2f  %6.2f  %4d  %11d  %9.0f  %7d  %15d  %15d  %12d", this.size,
+                    discovered.size() + "/" + this.size, discoveryMillis, onlineMillis, quantileMillis(sorted, 0.5),
+                    quantileMillis(sorted, 0.99), this.lost, retransmits() - retransmitsBefore, received / seconds,
+                    metrics.packetsDropped.sum() - droppedBefore, received == 0 ? 0 : serverAllocated / received,
+                    received == 0 ? 0 : workerAllocated / received, kernelDrops)
+                    + (online < this.size ? "  (" + online + " online)" : "");
+        } finally {
+            for (final DreamScreenBaseHandler handler : this.handlers) {
+                handler.dispose();
+            }
+            server.dispose();
+            delete(userData);
+        }
+    }
+
+    /**
+     * Scans for the fleet and returns the milliseconds until the last device was discovered.
+     */
+    private long discover(final DreamScreenServer server, final Map<ThingUID, DiscoveryResult> discovered)
+            throws InterruptedException {
+        final AtomicLong lastDiscovered = new AtomicLong();
+        server.addDiscoveryListener((DiscoveryListener) Proxy.newProxyInstance(
+                DiscoveryListener.class.getClassLoader(), new Class<?>[] { DiscoveryListener.class },
+                (proxy, method, args) -> {
+                    if ("thingDiscovered".equals(method.getName())) {
+                        final DiscoveryResult result = (DiscoveryResult) args[1];
+                        discovered.put(result.getThingUID(), result);
+                        lastDiscovered.set(System.nanoTime());
+                    }
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                }));
+        final long started = System.nanoTime();
+        server.startScan(null);
+        final long deadline = System.currentTimeMillis() + DISCOVERY_TIMEOUT_MILLIS;
+        while (discovered.size() < this.size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return lastDiscovered.get() == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(lastDiscovered.get() - started);
+    }
+
+    /**
+     * Connects a handler for every device and returns the milliseconds until they were all online, or until the
+     * timeout if some never came online.
+     */
+    private long connect(final DreamScreenServer server, final DreamScreenSimulator simulator)
+            throws InterruptedException {
+        final DreamScreenInputDescriptionProvider descriptionProvider = new DreamScreenInputDescriptionProvider();
+        for (final DreamScreenSimulator.Device device : simulator.getDevices()) {
+            final DreamScreenBaseHandler handler = DreamScreenLoopback.handler(device, descriptionProvider,
+                    this::stateUpdated);
+            this.colorChannels.put(new ChannelUID(handler.getThing().getUID(), CHANNEL_COLOR), this.handlers.size());
+            this.handlers.add(handler);
+        }
+        final long started = System.nanoTime();
+        for (final DreamScreenBaseHandler handler : this.handlers) {
+            handler.serverAdded(server);
+        }
+        final long deadline = System.currentTimeMillis() + ONLINE_TIMEOUT_MILLIS;
+        while (online().size() < this.size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private List<Integer> online() {
+        final List<Integer> online = new ArrayList<>();
+        for (int i = 0; i < this.handlers.size(); i++) {
+            if (this.handlers.get(i).getThing().getStatus() == ThingStatus.ONLINE) {
+                online.add(i);
+            }
+        }
+        return online;
+    }
+
+    /**
+     * Sends the color to every online device at once and waits for their echoes to be published, recording each
+     * round trip.
+     */
+    private void round(final HSBType color) throws InterruptedException {
+        final List<Integer> online = online();
+        final CountDownLatch echoes = new CountDownLatch(online.size());
+        for (final int i : online) {
+            this.echoed.set(i, 0);
+        }
+        this.echoes = echoes;
+        for (final int i : online) {
+            final DreamScreenBaseHandler handler = this.handlers.get(i);
+            this.sent[i] = System.nanoTime();
+            handler.handleCommand(new ChannelUID(handler.getThing().getUID(), CHANNEL_COLOR), color);
+        }
+        echoes.await(ROUND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        this.echoes = null;
+        for (final int i : online) {
+            final long echoed = this.echoed.get(i);
+            if (echoed == 0) {
+                this.lost++;
+            } else {
+                if (this.latencyCount == this.latencies.length) {
+                    this.latencies = Arrays.copyOf(this.latencies, this.latencyCount * 2);
+                }
+                this.latencies[this.latencyCount++] = echoed - this.sent[i];
+            }
+        }
+    }
+
+    /**
+     * Records when a device's color echo is published. Called on the server's worker thread, so it does not
+     * allocate.
+     */
+    private void stateUpdated(final ChannelUID channel, final State state) {
+        final CountDownLatch echoes = this.echoes;
+        final Integer index = this.colorChannels.get(channel);
+        if (echoes != null && index != null && this.echoed.compareAndSet(index, 0, System.nanoTime())) {
+            echoes.countDown();
+        }
+    }
+
+    private long retransmits() {
+        long retransmits = 0;
+        for (final DreamScreenBaseHandler handler : this.handlers) {
+            retransmits += handler.getMetrics().retransmits.sum();
+        }
+        return retransmits;
+    }
+
+    private static double quantileMillis(final long[] sorted, final double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * Returns the bytes the named thread has allocated so far, or 0 if there is no such thread.
+     */
+    private static long allocatedBytes(final String threadName) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (threadName.equals(thread.getName())) {
+                return threads.getThreadAllocatedBytes(thread.getId());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns how many UDP datagrams the kernel has dropped for full receive buffers, or -1 where it does not say.
+     */
+    private static long kernelDrops() {
+        try {
+            final List<String> lines = Files.readAllLines(Paths.get("/proc/net/snmp"));
+            for (int i = 0; i + 1 < lines.size(); i++) {
+                if (lines.get(i).startsWith("Udp:") && lines.get(i + 1).startsWith("Udp:")) {
+                    final int column = Arrays.asList(lines.get(i).split(" ")).indexOf("RcvbufErrors");
+                    return column < 0 ? -1 : Long.parseLong(lines.get(i + 1).split(" ")[column]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // not Linux
+        }
+        return -1;
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
+
+/**
+ * The {@link DreamScreenFrames} encodes the frames DreamScreen devices send, for tools that stand in for devices. It
+ * has its own CRC rather than using the binding's encoder, so the binding's decoder is checked against a second
+ * implementation of the protocol. Refresh payloads follow the layout recorded in msg.txt.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public final class DreamScreenFrames {
+    public static final byte FLAGS_READ = 0x16;
+    public static final byte FLAGS_WRITE = 0x17;
+    public static final byte FLAGS_GROUP_WRITE = 0x21;
+    public static final byte FLAGS_BROADCAST_READ = 0x30;
+    public static final byte FLAGS_REPLY = 0x60;
+
+    public static final int SERIAL_NUMBER = 0x0103;
+    public static final int REFRESH = 0x010A;
+    public static final int MODE = 0x0301;
+    public static final int COLOR = 0x0305;
+    public static final int AMBIENT_MODE_TYPE = 0x0308;
+    public static final int SCENE = 0x030D;
+    public static final int INPUT = 0x0320;
+
+    public static final int REFRESH_NAME = 0;
+    public static final int REFRESH_GROUP_NAME = 16;
+    public static final int REFRESH_GROUP = 32;
+    public static final int REFRESH_MODE = 33;
+    public static final int REFRESH_BRIGHTNESS = 34;
+    public static final int REFRESH_COLOR = 40;
+    public static final int REFRESH_SCENE = 62;
+    public static final int REFRESH_INPUT = 73;
+    public static final int REFRESH_INPUT_NAMES = 75;
+    public static final int NAME_LENGTH = 16;
+    public static final int TV_REFRESH_LENGTH = 141;
+    // msg.txt only records a TV refresh; a Sidekick sends a shorter one, and only the common fields and the product id
+    // in the last byte matter to the binding
+    public static final int SIDEKICK_REFRESH_LENGTH = 64;
+
+    private DreamScreenFrames() {
+    }
+
+    /**
+     * Writes a frame with the given header and payload at the buffer's position.
+     */
+    public static void putFrame(final ByteBuffer dst, final byte group, final byte flags, final int command,
+            final byte[] payload, final int payloadLen) {
+        final int off = dst.position();
+        dst.put((byte) 0xFC).put((byte) (payloadLen + 5)).put(group).put(flags).put((byte) (command >> 8))
+                .put((byte) command).put(payload, 0, payloadLen);
+        dst.put(crc8(dst, off, payloadLen + 6));
+    }
+
+    public static void putFrame(final ByteBuffer dst, final byte group, final byte flags, final int command,
+            final byte... payload) {
+        putFrame(dst, group, flags, command, payload, payload.length);
+    }
+
+    /**
+     * Writes a device's answer to a scan.
+     */
+    public static void putSerialNumber(final ByteBuffer dst, final byte group, final int serialNumber) {
+        putFrame(dst, group, FLAGS_REPLY, SERIAL_NUMBER, (byte) (serialNumber >> 24), (byte) (serialNumber >> 16),
+                (byte) (serialNumber >> 8), (byte) serialNumber);
+    }
+
+    /**
+     * Returns the payload of a device's answer to a refresh, in video mode with a white ambient color. TVs report
+     * input names too. The fields can be changed in place afterwards.
+     */
+    public static byte[] refreshPayload(final byte productId, final String name, final byte group) {
+        final boolean sidekick = productId == DreamScreenSidekickHandler.PRODUCT_ID;
+        final byte[] payload = new byte[sidekick ? SIDEKICK_REFRESH_LENGTH : TV_REFRESH_LENGTH];
+        putName(payload, REFRESH_NAME, name);
+        putName(payload, REFRESH_GROUP_NAME, group == 0 ? "unassigned" : "Group " + group);
+        payload[REFRESH_GROUP] = group;
+        payload[REFRESH_MODE] = 1;
+        payload[REFRESH_BRIGHTNESS] = 100;
+        payload[REFRESH_COLOR] = (byte) 0xFF;
+        payload[REFRESH_COLOR + 1] = (byte) 0xFF;
+        payload[REFRESH_COLOR + 2] = (byte) 0xFF;
+        if (!sidekick) {
+            for (int i = 0; i < 3; i++) {
+                putName(payload, REFRESH_INPUT_NAMES + i * NAME_LENGTH, "HDMI " + (i + 1));
+            }
+        }
+        payload[payload.length - 1] = productId;
+        return payload;
+    }
+
+    private static void putName(final byte[] payload, final int off, final String name) {
+        final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < NAME_LENGTH; i++) {
+            payload[off + i] = i < bytes.length ? bytes[i] : (byte) ' ';
+        }
+    }
+
+    /**
+     * Computes the CRC-8 (polynomial 0x07) of a frame's header and payload bit by bit.
+     */
+    static byte crc8(final ByteBuffer data, final int off, final int len) {
+        int crc = 0;
+        for (int i = off; i < off + len; i++) {
+            crc ^= data.get(i) & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x80) != 0 ? (crc << 1 ^ 0x07) & 0xFF : crc << 1 & 0xFF;
+            }
+        }
+        return (byte) crc;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools;
+
+import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.*;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.net.NetworkAddressService;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.binding.builder.ThingBuilder;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.dreamscreen.internal.DreamScreenConfiguration;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenBaseHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenInputDescriptionProvider;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
+
+/**
+ * The {@link DreamScreenLoopback} wires the binding to a {@link DreamScreenSimulator} without a framework: a network
+ * service that points the server at the loopback network, and handlers for simulated devices. The server also listens
+ * on the machine's other IPv4 interfaces, as it always does, but no devices answer there.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public final class DreamScreenLoopback {
+    public static final String PRIMARY_ADDRESS = "127.0.0.1";
+    public static final String HUB_ADDRESS = "127.1.0.1";
+
+    private DreamScreenLoopback() {
+    }
+
+    /**
+     * Returns a network service whose primary address is the loopback address and whose broadcast address is the
+     * simulator's hub.
+     */
+    public static NetworkAddressService network() {
+        return (NetworkAddressService) Proxy.newProxyInstance(NetworkAddressService.class.getClassLoader(),
+                new Class<?>[] { NetworkAddressService.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getPrimaryIpv4HostAddress":
+                            return PRIMARY_ADDRESS;
+                        case "getConfiguredBroadcastAddress":
+                            return HUB_ADDRESS;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "DreamScreenLoopbackNetwork";
+                        default:
+                            return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+
+    /**
+     * Creates and initializes the handler of a simulated device. It starts talking to its device once
+     * {@link DreamScreenBaseHandler#serverAdded} connects it to a server.
+     */
+    public static DreamScreenBaseHandler handler(final DreamScreenSimulator.Device device,
+            final DreamScreenInputDescriptionProvider descriptionProvider,
+            final BiConsumer<ChannelUID, State> states) {
+        final ThingTypeUID type = device.productId == DreamScreenHdHandler.PRODUCT_ID ? THING_TYPE_HD
+                : device.productId == DreamScreen4kHandler.PRODUCT_ID ? THING_TYPE_4K : THING_TYPE_SIDEKICK;
+        final String serialNumber = Integer.toString(device.serialNumber);
+        final Thing thing = ThingBuilder.create(type, serialNumber).withConfiguration(new Configuration(
+                Collections.singletonMap(DreamScreenConfiguration.SERIAL_NUMBER, (Object) serialNumber))).build();
+        final DreamScreenBaseHandler handler;
+        if (type.equals(THING_TYPE_HD)) {
+            handler = new DreamScreenHdHandler(thing, descriptionProvider);
+        } else if (type.equals(THING_TYPE_4K)) {
+            handler = new DreamScreen4kHandler(thing, descriptionProvider);
+        } else {
+            handler = new DreamScreenSidekickHandler(thing);
+        }
+        descriptionProvider.addThing(thing.getUID());
+        handler.setCallback(DreamScreenCallbacks.create(states));
+        handler.initialize();
+        return handler;
+    }
+}
@@ -0,0 +1,493 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.tools;
+
+import static org.openhab.binding.dreamscreen.tools.DreamScreenFrames.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
+
+/**
+ * The {@link DreamScreenSimulator} stands in for DreamScreen devices on the loopback network, so the binding can be
+ * run against a real socket without hardware. Every virtual device binds its own loopback address on the DreamScreen
+ * port, and a hub address plays the part of the subnet's broadcast address: whatever is sent to it reaches every
+ * device. A single thread answers for all devices, so hundreds of them can run at once.
+ *
+ * Devices answer a scan with their serial number and a refresh with their state, answer reads of their mode, color,
+ * scene, ambient mode type and input, and apply and echo writes of them. Group writes are only applied by devices in
+ * the group. Requests can be dropped and replies delayed to exercise retransmits and the dropping of late echoes.
+ *
+ * The whole 127.0.0.0/8 network is only routed to the loopback interface on Linux; elsewhere, the addresses have to
+ * be added to the loopback interface first.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenSimulator implements Closeable {
+    public static final int DREAMSCREEN_PORT = 8888;
+    private static final int MAX_PACKET_SIZE = 256;
+    private static final byte[] PRODUCTS = { DreamScreenHdHandler.PRODUCT_ID, DreamScreen4kHandler.PRODUCT_ID,
+            DreamScreenSidekickHandler.PRODUCT_ID };
+
+    private final DatagramChannel hub;
+    private final List<Device> devices = new ArrayList<>();
+    private final Selector selector;
+    private final ByteBuffer request = ByteBuffer.allocate(MAX_PACKET_SIZE);
+    private final ByteBuffer reply = ByteBuffer.allocate(MAX_PACKET_SIZE);
+    private final PriorityQueue<Delayed> delayed = new PriorityQueue<>((a, b) -> Long.signum(a.due - b.due));
+    private volatile double lossRate = 0;
+    private @Nullable Thread thread;
+
+    public final LongAdder requestsReceived = new LongAdder();
+    public final LongAdder requestsDropped = new LongAdder();
+    public final LongAdder repliesSent = new LongAdder();
+
+    /**
+     * Creates a simulator whose devices all receive what is sent to the hub address, which the binding should be
+     * configured to use as its broadcast address.
+     */
+    public DreamScreenSimulator(final InetAddress hub) throws IOException {
+        this.selector = Selector.open();
+        this.hub = bind(hub);
+        register(this.hub, null);
+    }
+
+    /**
+     * Returns the loopback address of the device with the given index, counting from 0, starting at 127.1.1.1.
+     */
+    public static InetAddress deviceAddress(final int index) throws UnknownHostException {
+        return InetAddress.getByAddress(new byte[] { 127, 1, (byte) (1 + index / 250), (byte) (1 + index % 250) });
+    }
+
+    /**
+     * Adds a device at the given address. Devices can only be added before the simulator is started.
+     */
+    public synchronized Device addDevice(final InetAddress address, final byte productId, final int serialNumber,
+            final byte group) throws IOException {
+        if (this.thread != null) {
+            throw new IllegalStateException("Devices must be added before the simulator is started");
+        }
+        final String name = (productId == DreamScreenSidekickHandler.PRODUCT_ID ? "Sidekick "
+                : productId == DreamScreen4kHandler.PRODUCT_ID ? "DreamScreen 4K " : "DreamScreen HD ")
+                + serialNumber;
+        final Device device = new Device(address, productId, serialNumber, group, name, bind(address));
+        register(device.channel, device);
+        this.devices.add(device);
+        return device;
+    }
+
+    /**
+     * Adds a fleet of devices at consecutive addresses, cycling through HD, 4K and Sidekick products. Serial numbers
+     * count up from the given one, and every group of four devices after the first shares a group.
+     */
+    public List<Device> addFleet(final int count, final int firstSerialNumber) throws IOException {
+        final List<Device> fleet = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int index = this.devices.size();
+            fleet.add(addDevice(deviceAddress(index), PRODUCTS[index % PRODUCTS.length], firstSerialNumber + i,
+                    (byte) (index < 4 ? 0 : 1 + index / 4 % 250)));
+        }
+        return fleet;
+    }
+
+    public List<Device> getDevices() {
+        return Collections.unmodifiableList(this.devices);
+    }
+
+    /**
+     * Drops the given fraction of requests to every device, as if they were lost on the network.
+     */
+    public void setLossRate(final double lossRate) {
+        this.lossRate = lossRate;
+    }
+
+    public synchronized void start() {
+        if (this.thread == null) {
+            final Thread thread = new Thread(this::run, "dreamscreen-simulator");
+            thread.setDaemon(true);
+            thread.start();
+            this.thread = thread;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.selector.close();
+        this.hub.close();
+        for (final Device device : this.devices) {
+            device.channel.close();
+        }
+        final Thread thread = this.thread;
+        if (thread != null) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static DatagramChannel bind(final InetAddress address) throws IOException {
+        final DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(address, DREAMSCREEN_PORT));
+            channel.configureBlocking(false);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw new IOException("Unable to bind simulated device to " + address + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void register(final DatagramChannel channel, final @Nullable Device device) throws IOException {
+        channel.register(this.selector, SelectionKey.OP_READ, device);
+    }
+
+    private void run() {
+        final Selector selector = this.selector;
+        while (selector.isOpen()) {
+            try {
+                final Delayed next = this.delayed.peek();
+                if (next == null) {
+                    selector.select();
+                } else {
+                    final long wait = TimeUnit.NANOSECONDS.toMillis(next.due - System.nanoTime());
+                    if (wait > 0) {
+                        selector.select(wait);
+                    } else {
+                        selector.selectNow();
+                    }
+                }
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        receive((DatagramChannel) key.channel(), (Device) key.attachment());
+                    }
+                }
+                sendDelayed();
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                if (selector.isOpen()) {
+                    System.err.println("DreamScreen simulator failed: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers every request pending on a channel, for its device or, on the hub, for every device.
+     */
+    private void receive(final DatagramChannel channel, final @Nullable Device device) throws IOException {
+        final ByteBuffer request = this.request;
+        while (true) {
+            request.clear();
+            final SocketAddress source = channel.receive(request);
+            if (source == null) {
+                return;
+            }
+            request.flip();
+            if (!valid(request)) {
+                continue;
+            }
+            if (device != null) {
+                answer(device, request, source);
+            } else {
+                for (final Device member : this.devices) {
+                    answer(member, request, source);
+                }
+            }
+        }
+    }
+
+    private static boolean valid(final ByteBuffer frame) {
+        final int len = frame.remaining();
+        if (len < 7 || frame.get(0) != (byte) 0xFC) {
+            return false;
+        }
+        final int msgLen = frame.get(1) & 0xFF;
+        return msgLen + 2 <= len && frame.get(msgLen + 1) == crc8(frame, 0, msgLen + 1);
+    }
+
+    private void answer(final Device device, final ByteBuffer request, final SocketAddress source)
+            throws IOException {
+        final byte group = request.get(2);
+        final byte flags = request.get(3);
+        final int command = (request.get(4) & 0xFF) << 8 | (request.get(5) & 0xFF);
+        final int payloadLen = (request.get(1) & 0xFF) - 5;
+        if (flags == FLAGS_GROUP_WRITE && (group == 0 || group != device.group)) {
+            return;
+        }
+        this.requestsReceived.increment();
+        if (device.dropRequests > 0) {
+            device.dropRequests--;
+            this.requestsDropped.increment();
+            return;
+        }
+        final double lossRate = this.lossRate;
+        if (lossRate > 0 && ThreadLocalRandom.current().nextDouble() < lossRate) {
+            this.requestsDropped.increment();
+            return;
+        }
+
+        final ByteBuffer reply = this.reply;
+        reply.clear();
+        if (command == SERIAL_NUMBER) {
+            putSerialNumber(reply, device.group, device.serialNumber);
+        } else if (command == REFRESH) {
+            final byte[] payload = device.refreshPayload();
+            putFrame(reply, device.group, FLAGS_REPLY, REFRESH, payload, payload.length);
+        } else if (device.has(command)) {
+            if (flags == FLAGS_WRITE || flags == FLAGS_GROUP_WRITE) {
+                for (int i = 0; i < payloadLen; i++) {
+                    device.set(command, i, request.get(6 + i));
+                }
+            }
+            putFrame(reply, device.group, FLAGS_REPLY, command, device.get(command));
+        } else {
+            return;
+        }
+        reply.flip();
+        if (device.delayReplies > 0) {
+            device.delayReplies--;
+            final byte[] copy = new byte[reply.remaining()];
+            reply.get(copy);
+            final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(device.delayMillis);
+            this.delayed.add(new Delayed(device, ByteBuffer.wrap(copy), source, due));
+        } else {
+            send(device, reply, source);
+        }
+    }
+
+    private void sendDelayed() throws IOException {
+        final long now = System.nanoTime();
+        Delayed next;
+        while ((next = this.delayed.peek()) != null && next.due - now <= 0) {
+            this.delayed.poll();
+            send(next.device, next.reply, next.target);
+        }
+    }
+
+    private void send(final Device device, final ByteBuffer reply, final SocketAddress target) throws IOException {
+        if (device.channel.send(reply, target) != 0) {
+            this.repliesSent.increment();
+        }
+    }
+
+    /**
+     * Simulates devices on the loopback network until the process is stopped. The arguments are the number of devices
+     * and the hub address, which defaults to 127.1.0.1. Configure the binding's broadcast address as the hub
+     * address and its primary address as 127.0.0.1.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        final InetAddress hub = InetAddress.getByName(args.length > 1 ? args[1] : DreamScreenLoopback.HUB_ADDRESS);
+        try (DreamScreenSimulator simulator = new DreamScreenSimulator(hub)) {
+            simulator.addFleet(count, 1000);
+            simulator.start();
+            System.out.println("Simulating " + count + " DreamScreen devices from " + deviceAddress(0)
+                    + ", broadcast address " + hub);
+            while (true) {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                System.out.println("Requests " + simulator.requestsReceived.sum() + ", replies "
+                        + simulator.repliesSent.sum());
+            }
+        }
+    }
+
+    /**
+     * A simulated device and its state. The state is changed by the simulator's thread and can be read from any
+     * thread.
+     */
+    public static final class Device {
+        public final InetAddress address;
+        public final byte productId;
+        public final int serialNumber;
+        public final byte group;
+        private final DatagramChannel channel;
+        private final byte[] refresh;
+        private volatile byte mode = 1;
+        private volatile int color = 0xFFFFFF;
+        private volatile byte scene = 0;
+        private volatile byte ambientModeType = 0;
+        private volatile byte input = 0;
+        private volatile int dropRequests = 0;
+        private volatile int delayReplies = 0;
+        private volatile long delayMillis = 0;
+
+        Device(final InetAddress address, final byte productId, final int serialNumber, final byte group,
+                final String name, final DatagramChannel channel) {
+            this.address = address;
+            this.productId = productId;
+            this.serialNumber = serialNumber;
+            this.group = group;
+            this.channel = channel;
+            this.refresh = DreamScreenFrames.refreshPayload(productId, name, group);
+        }
+
+        public byte getMode() {
+            return this.mode;
+        }
+
+        /**
+         * Returns the ambient color's red, green and blue bytes packed into the low 24 bits of an int.
+         */
+        public int getColor() {
+            return this.color;
+        }
+
+        public byte getScene() {
+            return this.scene;
+        }
+
+        public byte getAmbientModeType() {
+            return this.ambientModeType;
+        }
+
+        public byte getInput() {
+            return this.input;
+        }
+
+        /**
+         * Ignores the next requests to the device, as if they were lost on the way.
+         */
+        public void dropRequests(final int count) {
+            this.dropRequests = count;
+        }
+
+        /**
+         * Sends the next replies of the device late, as if they were held up on the way.
+         */
+        public void delayReplies(final int count, final long millis) {
+            this.delayMillis = millis;
+            this.delayReplies = count;
+        }
+
+        boolean has(final int command) {
+            switch (command) {
+                case MODE:
+                case COLOR:
+                case SCENE:
+                case AMBIENT_MODE_TYPE:
+                    return true;
+                case INPUT:
+                    return this.productId != DreamScreenSidekickHandler.PRODUCT_ID;
+                default:
+                    return false;
+            }
+        }
+
+        void set(final int command, final int index, final byte value) {
+            switch (command) {
+                case MODE:
+                    this.mode = value;
+                    break;
+                case COLOR:
+                    final int shift = 16 - index * 8;
+                    if (shift >= 0) {
+                        this.color = this.color & ~(0xFF << shift) | (value & 0xFF) << shift;
+                    }
+                    break;
+                case SCENE:
+                    this.scene = value;
+                    break;
+                case AMBIENT_MODE_TYPE:
+                    this.ambientModeType = value;
+                    break;
+                case INPUT:
+                    this.input = value;
+                    break;
+            }
+        }
+
+        byte[] get(final int command) {
+            switch (command) {
+                case COLOR:
+                    final int color = this.color;
+                    return new byte[] { (byte) (color >> 16), (byte) (color >> 8), (byte) color };
+                case MODE:
+                    return new byte[] { this.mode };
+                case SCENE:
+                    return new byte[] { this.scene };
+                case AMBIENT_MODE_TYPE:
+                    return new byte[] { this.ambientModeType };
+                default:
+                    return new byte[] { this.input };
+            }
+        }
+
+        byte[] refreshPayload() {
+            final byte[] refresh = this.refresh;
+            final int color = this.color;
+            refresh[REFRESH_MODE] = this.mode;
+            refresh[REFRESH_COLOR] = (byte) (color >> 16);
+            refresh[REFRESH_COLOR + 1] = (byte) (color >> 8);
+            refresh[REFRESH_COLOR + 2] = (byte) color;
+            refresh[REFRESH_SCENE] = this.scene;
+            if (this.productId != DreamScreenSidekickHandler.PRODUCT_ID) {
+                refresh[REFRESH_INPUT] = this.input;
+            }
+            return refresh;
+        }
+
+        @Override
+        public String toString() {
+            return "Device " + this.serialNumber + " at " + this.address.getHostAddress();
+        }
+    }
+
+    /**
+     * A reply held back until it is due.
+     */
+    private static final class Delayed {
+        final Device device;
+        final ByteBuffer reply;
+        final SocketAddress target;
+        final long due;
+
+        Delayed(final Device device, final ByteBuffer reply, final SocketAddress target, final long due) {
+            this.device = device;
+            this.reply = reply;
+            this.target = target;
+            this.due = due;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.dreamscreen.internal.DreamScreenBindingConstants.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.discovery.DiscoveryListener;
+import org.eclipse.smarthome.config.discovery.DiscoveryResult;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreen4kHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenBaseHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenHdHandler;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenInputDescriptionProvider;
+import org.openhab.binding.dreamscreen.internal.handler.DreamScreenSidekickHandler;
+import org.openhab.binding.dreamscreen.internal.model.DreamScreenMode;
+import org.openhab.binding.dreamscreen.tools.DreamScreenLoopback;
+import org.openhab.binding.dreamscreen.tools.DreamScreenSimulator;
+import org.openhab.binding.dreamscreen.tools.DreamScreenSimulator.Device;
+
+/**
+ * Tests the {@link DreamScreenServer} and its handlers against simulated devices on the loopback network, through
+ * real sockets.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenServerLoopbackTest {
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    @Rule
+    public final TemporaryFolder userData = new TemporaryFolder();
+
+    private @Nullable DreamScreenSimulator simulator;
+    private @Nullable DreamScreenServer server;
+    private final DreamScreenInputDescriptionProvider descriptionProvider = new DreamScreenInputDescriptionProvider();
+    private final List<DreamScreenBaseHandler> handlers = new ArrayList<>();
+    private final Map<ChannelUID, State> states = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws IOException {
+        System.setProperty(ConfigConstants.USERDATA_DIR_PROG_ARGUMENT, this.userData.getRoot().getAbsolutePath());
+        this.simulator = new DreamScreenSimulator(InetAddress.getByName(DreamScreenLoopback.HUB_ADDRESS));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (final DreamScreenBaseHandler handler : this.handlers) {
+            handler.dispose();
+        }
+        final DreamScreenServer server = this.server;
+        if (server != null) {
+            server.dispose();
+        }
+        simulator().close();
+    }
+
+    private DreamScreenSimulator simulator() {
+        final DreamScreenSimulator simulator = this.simulator;
+        assertNotNull(simulator);
+        return simulator;
+    }
+
+    private DreamScreenServer startServer() {
+        simulator().start();
+        final DreamScreenServer server = new DreamScreenServer();
+        server.bindNetworkAddressService(DreamScreenLoopback.network());
+        this.server = server;
+        return server;
+    }
+
+    /**
+     * Connects a handler for the device and waits until it is online and has published the device's whole state, so
+     * no read is still in flight.
+     */
+    private DreamScreenBaseHandler online(final DreamScreenServer server, final Device device) {
+        final DreamScreenBaseHandler handler = DreamScreenLoopback.handler(device, this.descriptionProvider,
+                this.states::put);
+        this.handlers.add(handler);
+        handler.serverAdded(server);
+        final ChannelUID scene = new ChannelUID(handler.getThing().getUID(), CHANNEL_SCENE);
+        await(() -> handler.getThing().getStatus() == ThingStatus.ONLINE && this.states.containsKey(scene),
+                device + " did not come online");
+        return handler;
+    }
+
+    private static void command(final DreamScreenBaseHandler handler, final String channel, final Command command) {
+        handler.handleCommand(new ChannelUID(handler.getThing().getUID(), channel), command);
+    }
+
+    private static void await(final BooleanSupplier condition, final String message) {
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(message);
+            }
+        }
+    }
+
+    @Test
+    public void discoversEveryProduct() throws IOException {
+        simulator().addFleet(3, 1000);
+        final DreamScreenServer server = startServer();
+        final Map<ThingUID, DiscoveryResult> results = new ConcurrentHashMap<>();
+        server.addDiscoveryListener((DiscoveryListener) Proxy.newProxyInstance(
+                DiscoveryListener.class.getClassLoader(), new Class<?>[] { DiscoveryListener.class },
+                (proxy, method, args) -> {
+                    if ("thingDiscovered".equals(method.getName())) {
+                        final DiscoveryResult result = (DiscoveryResult) args[1];
+                        results.put(result.getThingUID(), result);
+                    }
+                    return null;
+                }));
+
+        server.startScan(null);
+
+        await(() -> results.size() == 3, "Found " + results.keySet());
+        assertTrue(results.containsKey(new ThingUID(THING_TYPE_HD, "1000")));
+        assertTrue(results.containsKey(new ThingUID(THING_TYPE_4K, "1001")));
+        assertTrue(results.containsKey(new ThingUID(THING_TYPE_SIDEKICK, "1002")));
+    }
+
+    @Test
+    public void colorCommandSwitchesDeviceToAmbientColor() throws IOException {
+        final Device device = simulator().addDevice(DreamScreenSimulator.deviceAddress(0),
+                DreamScreen4kHandler.PRODUCT_ID, 2000, (byte) 0);
+        final DreamScreenBaseHandler handler = online(startServer(), device);
+
+        command(handler, CHANNEL_COLOR, new HSBType(new DecimalType(0), PercentType.HUNDRED, PercentType.HUNDRED));
+
+        await(() -> device.getColor() == 0xFF0000 && device.getMode() == DreamScreenMode.AMBIENT.deviceMode,
+                "Device color " + Integer.toHexString(device.getColor()) + ", mode " + device.getMode());
+    }
+
+    @Test
+    public void retransmitsLostWrite() throws IOException {
+        final Device device = simulator().addDevice(DreamScreenSimulator.deviceAddress(0),
+                DreamScreenHdHandler.PRODUCT_ID, 3000, (byte) 0);
+        final DreamScreenBaseHandler handler = online(startServer(), device);
+
+        device.dropRequests(1);
+        command(handler, CHANNEL_MODE, DreamScreenMode.MUSIC.state());
+
+        await(() -> device.getMode() == DreamScreenMode.MUSIC.deviceMode, "Mode was never changed");
+        assertEquals(1, handler.getMetrics().retransmits.sum());
+    }
+
+    @Test
+    public void dropsLateEchoOfRetransmittedWrite() throws IOException {
+        final Device device = simulator().addDevice(DreamScreenSimulator.deviceAddress(0),
+                DreamScreenSidekickHandler.PRODUCT_ID, 4000, (byte) 0);
+        final DreamScreenBaseHandler handler = online(startServer(), device);
+
+        // the first echo arrives after the write was retransmitted and the retransmit was answered
+        device.delayReplies(1, 400);
+        command(handler, CHANNEL_MODE, DreamScreenMode.MUSIC.state());
+
+        await(() -> handler.getMetrics().duplicatesDropped.sum() == 1, "Late echo was not dropped");
+        assertEquals(1, handler.getMetrics().retransmits.sum());
+        assertEquals(DreamScreenMode.MUSIC.deviceMode, device.getMode());
+    }
+
+    @Test
+    public void groupCommandReachesOnlyGroupMembers() throws IOException {
+        final Device member = simulator().addDevice(DreamScreenSimulator.deviceAddress(0),
+                DreamScreen4kHandler.PRODUCT_ID, 5000, (byte) 1);
+        final Device otherMember = simulator().addDevice(DreamScreenSimulator.deviceAddress(1),
+                DreamScreenSidekickHandler.PRODUCT_ID, 5001, (byte) 1);
+        final Device outsider = simulator().addDevice(DreamScreenSimulator.deviceAddress(2),
+                DreamScreenSidekickHandler.PRODUCT_ID, 5002, (byte) 2);
+        final DreamScreenBaseHandler handler = online(startServer(), member);
+
+        command(handler, CHANNEL_GROUP_MODE, DreamScreenMode.MUSIC.state());
+
+        await(() -> member.getMode() == DreamScreenMode.MUSIC.deviceMode
+                && otherMember.getMode() == DreamScreenMode.MUSIC.deviceMode, "Group was not changed");
+        assertEquals(DreamScreenMode.VIDEO.deviceMode, outsider.getMode());
+    }
+}
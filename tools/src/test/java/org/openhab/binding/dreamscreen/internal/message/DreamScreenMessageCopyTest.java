@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2018-2019 by the respective copyright holders.
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.dreamscreen.internal.message;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.Test;
+
+/**
+ * Tests that {@link DreamScreenMessage#copy()} detaches a message from the buffer its reader decoded it from.
+ *
+ * @author Bruce Brouwer
+ */
+@NonNullByDefault
+public class DreamScreenMessageCopyTest {
+    private final ByteBuffer datagram = ByteBuffer.allocate(256);
+    private final DreamScreenMessageReader reader = new DreamScreenMessageReader();
+
+    private DreamScreenMessage receive(final DreamScreenMessage sent) throws DreamScreenMessageInvalid {
+        this.datagram.clear();
+        sent.putWrite(this.datagram);
+        this.datagram.flip();
+        return this.reader.read(this.datagram.asReadOnlyBuffer());
+    }
+
+    @Test
+    public void copySurvivesNextDatagram() throws DreamScreenMessageInvalid {
+        final DreamScreenMessage first = receive(new ModeMessage((byte) 1, (byte) 1));
+        final DreamScreenMessage copy = first.copy();
+
+        final DreamScreenMessage second = receive(new ModeMessage((byte) 2, (byte) 3));
+
+        assertSame(first, second);
+        assertEquals(3, ((ModeMessage) second).getMode());
+        assertNotSame(first, copy);
+        assertEquals(1, ((ModeMessage) copy).getMode());
+        assertEquals(new ModeMessage((byte) 1, (byte) 1).contentHash(), copy.contentHash());
+    }
+
+    @Test
+    public void copySurvivesDatagramOfAnotherType() throws DreamScreenMessageInvalid {
+        final DreamScreenMessage color = receive(new ColorMessage((byte) 0, (byte) 10, (byte) 20, (byte) 30));
+        final DreamScreenMessage copy = color.copy();
+        final long hash = copy.contentHash();
+
+        receive(new SceneMessage((byte) 0, (byte) 5));
+        receive(new ColorMessage((byte) 0, (byte) 40, (byte) 50, (byte) 60));
+
+        assertTrue(copy instanceof ColorMessage);
+        assertEquals(10, ((ColorMessage) copy).getRed());
+        assertEquals(20, ((ColorMessage) copy).getGreen());
+        assertEquals(30, ((ColorMessage) copy).getBlue());
+        assertEquals(hash, copy.contentHash());
+    }
+
+    @Test
+    public void copyOfCopyIsSameMessage() throws DreamScreenMessageInvalid {
+        final DreamScreenMessage copy = receive(new ModeMessage((byte) 0, (byte) 2)).copy();
+
+        assertSame(copy, copy.copy());
+    }
+
+    @Test
+    public void constructedMessageIsOwned() {
+        final ModeMessage msg = new ModeMessage((byte) 0, (byte) 2);
+
+        assertSame(msg, msg.copy());
+    }
+}